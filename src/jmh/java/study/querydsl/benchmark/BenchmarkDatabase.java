@@ -0,0 +1,86 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.datagen.DataGeneratorProperties;
+import study.querydsl.datagen.MemberDataGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크마다 인메모리 H2 위에 스프링 컨텍스트를 띄우고 MemberDataGenerator 로 members/teams 만큼 데이터를 채운다.
+ * 크기는 build.gradle 의 jmhMembers/jmhTeams 프로퍼티로 바꾼다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    @Param({"10000"})
+    public int members;
+
+    @Param({"100"})
+    public int teams;
+
+    @Param({"0"})
+    public double teamSkew;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = start("bench-" + members + "-" + teams + "-" + teamSkew);
+        seed(context, members, teams, teamSkew);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * application.yml 보다 우선하도록 설정을 커맨드라인 인자로 넘겨서 컨텍스트를 띄운다.
+     * extraArgs 에 같은 키가 있으면 기본값 대신 그 값을 쓴다.
+     */
+    static ConfigurableApplicationContext start(final String database, final String... extraArgs) {
+        final List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:" + database,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--member.count-cache.enabled=false",
+                "--member.search-cache.enabled=false"
+        ));
+        for (String extraArg : extraArgs) {
+            final String key = extraArg.substring(0, extraArg.indexOf('=') + 1);
+            args.removeIf(arg -> arg.startsWith(key));
+            args.add(extraArg);
+        }
+        return new SpringApplicationBuilder(QuerydslApplication.class).run(args.toArray(String[]::new));
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static void seed(final ConfigurableApplicationContext context, final int members, final int teams, final double teamSkew) {
+        final DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setMembers(members);
+        properties.setTeams(teams);
+        properties.setTeamSkew(teamSkew);
+        properties.setUsernameCardinality(members);
+        properties.setBatchSize(10_000);
+        context.getBean(MemberDataGenerator.class).generate(properties);
+    }
+}
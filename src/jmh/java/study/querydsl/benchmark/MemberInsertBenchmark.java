@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트를 거치는 일반 persist 경로의 insert 처리량(행/초)을 id 블록 크기와 JDBC 배치 크기별로 잰다.
+ * blockSize=1, batchSize=0 이 시퀀스를 매번 호출하고 배치하지 않던 예전 동작에 해당한다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=MemberInsertBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberInsertBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param({"1", "50", "1000"})
+    public int blockSize;
+
+    @Param({"0", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+    private Team team;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("insert-" + blockSize + "-" + batchSize,
+                "--spring.jpa.properties.querydsl.id.block_size=" + blockSize,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = context.getBean(EntityManager.class);
+
+        team = transactionTemplate.execute(status -> {
+            final Team saved = Team.builder().name("teamA").build();
+            em.persist(saved);
+            return saved;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void persist() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(Member.builder()
+                        .username("member" + i)
+                        .age(i % 100)
+                        .team(em.getReference(Team.class, team.getId()))
+                        .build());
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.service.MemberJsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /v1/members 의 JSON 을 DTO + Jackson 으로 쓰는 경우와 JDBC 결과에서 바로 쓰는 경우를 잰다.
+ * 행당 할당량은 gc 프로파일러의 gc.alloc.rate.norm 을 rows 로 나눈 값이다.
+ * 나이는 0~99 에 고르게, 팀은 고르게 나뉘므로 rows 는 teamName 이면 약 members/teams, ageGoe+ageLoe 면 약 members * 6 / 100 이다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=MemberJsonBenchmark -PjmhMembers=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberJsonBenchmark {
+
+    @Param({"teamName", "ageGoe+ageLoe"})
+    public String shape;
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberJsonWriter memberJsonWriter;
+    private ObjectMapper objectMapper;
+    private MemberSearchCondition condition;
+    // ObjectMapper.writeValue 가 닫아도 계속 쓸 수 있는 버리는 스트림
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+    };
+
+    @Setup
+    public void setUp(final BenchmarkDatabase database) {
+        memberJpaRepository = database.getBean(MemberJpaRepository.class);
+        memberJsonWriter = database.getBean(MemberJsonWriter.class);
+        objectMapper = database.getBean(ObjectMapper.class);
+        condition = MemberSearchBenchmark.conditionOf(shape);
+    }
+
+    @Benchmark
+    public void dto() throws IOException {
+        objectMapper.writeValue(out, memberJpaRepository.search(condition));
+    }
+
+    @Benchmark
+    public long direct() throws IOException {
+        return memberJsonWriter.write(condition, out);
+    }
+}
@@ -0,0 +1,97 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.index.MemberBitmapIndex;
+import study.querydsl.index.MemberBitmapIndexProperties;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.SearchPlan;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 검색 메서드를 술어 조합별로 잰다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=MemberSearchBenchmark -PjmhMembers=10000,1000000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSearchBenchmark {
+
+    @Param({"none", "ageGoe", "ageGoe+ageLoe", "teamName", "ageGoe+ageLoe+teamName", "username"})
+    public String shape;
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp(final BenchmarkDatabase database) {
+        memberJpaRepository = database.getBean(MemberJpaRepository.class);
+        memberRepository = database.getBean(MemberRepository.class);
+        condition = conditionOf(shape);
+        pageRequest = PageRequest.of(0, 20);
+
+        database.getBean(MemberBitmapIndexProperties.class).setEnabled(true);
+        // 데이터는 이벤트가 나오지 않는 StatelessSession 으로 넣었으므로 다시 만든다.
+        database.getBean(MemberBitmapIndex.class).rebuild();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplexConcurrent() {
+        return memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.CONCURRENT);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplexBitmapIndex() {
+        return memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.BITMAP_INDEX);
+    }
+
+    static MemberSearchCondition conditionOf(final String shape) {
+        final MemberSearchCondition.MemberSearchConditionBuilder builder = MemberSearchCondition.builder();
+        for (String predicate : shape.split("\\+")) {
+            switch (predicate) {
+                case "ageGoe" -> builder.ageGoe(90);
+                case "ageLoe" -> builder.ageLoe(95);
+                case "teamName" -> builder.teamName("team1");
+                case "username" -> builder.username("member42");
+                case "none" -> {
+                }
+                default -> throw new IllegalArgumentException("unknown predicate: " + predicate);
+            }
+        }
+        return builder.build();
+    }
+}
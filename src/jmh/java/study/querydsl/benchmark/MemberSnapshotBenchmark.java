@@ -0,0 +1,68 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.snapshot.MemberSnapshot;
+import study.querydsl.snapshot.MemberSnapshotProperties;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 검색을 SQL 경로와 메모리 스냅샷으로 잰다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=MemberSnapshotBenchmark -PjmhMembers=10000,1000000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSnapshotBenchmark {
+
+    @Param({"SQL", "SNAPSHOT"})
+    public String source;
+
+    @Param({"none", "ageGoe+ageLoe", "teamName", "username"})
+    public String shape;
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private PageRequest firstPage;
+    private PageRequest lastPage;
+
+    @Setup
+    public void setUp(final BenchmarkDatabase database) {
+        database.getBean(MemberSnapshotProperties.class).setEnabled("SNAPSHOT".equals(source));
+        // 데이터는 이벤트가 나오지 않는 StatelessSession 으로 넣었으므로 다시 읽는다.
+        database.getBean(MemberSnapshot.class).reload();
+
+        memberRepository = database.getBean(MemberRepository.class);
+        condition = MemberSearchBenchmark.conditionOf(shape);
+        firstPage = PageRequest.of(0, 20);
+        final long total = memberRepository.searchPageSimple(condition, firstPage).getTotalElements();
+        lastPage = PageRequest.of((int) Math.max(0, (total - 1) / 20), 20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageFirst() {
+        return memberRepository.searchPageSimple(condition, firstPage);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageLast() {
+        return memberRepository.searchPageComplex(condition, lastPage);
+    }
+}
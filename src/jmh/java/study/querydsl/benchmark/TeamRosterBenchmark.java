@@ -0,0 +1,54 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.TeamRosterDto;
+import study.querydsl.repository.TeamFetchStrategy;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 팀 명단 조회를 컬렉션 로딩 방식과 페이지 크기별로 잰다.
+ * 팀 수와 쏠림은 BenchmarkDatabase 의 파라미터로 바꾼다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=TeamRosterBenchmark -PjmhTeams=100,5000 -PjmhTeamSkew=0,1.1
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TeamRosterBenchmark {
+
+    @Param({"FETCH_JOIN", "BATCH", "TWO_QUERY"})
+    public TeamFetchStrategy strategy;
+
+    @Param({"20", "200"})
+    public int pageSize;
+
+    private TeamRepository teamRepository;
+    private PageRequest firstPage;
+    private PageRequest middlePage;
+
+    @Setup
+    public void setUp(final BenchmarkDatabase database) {
+        teamRepository = database.getBean(TeamRepository.class);
+        firstPage = PageRequest.of(0, pageSize);
+        middlePage = PageRequest.of(Math.max(0, database.teams / pageSize / 2), pageSize);
+    }
+
+    @Benchmark
+    public Page<TeamRosterDto> firstPage() {
+        return teamRepository.findRoster(firstPage, strategy);
+    }
+
+    @Benchmark
+    public Page<TeamRosterDto> middlePage() {
+        return teamRepository.findRoster(middlePage, strategy);
+    }
+}
@@ -0,0 +1,116 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실제 톰캣을 띄우고 많은 클라이언트 스레드로 /v2, /v3 검색을 두드려서
+ * 플랫폼 스레드 풀과 가상 스레드의 처리량(thrpt)과 꼬리 지연(sample 의 p0.99)을 동시 요청 제한을 켜고 끈 채로 비교한다.
+ * 제한을 켜면 처리량에 503(동시 요청 제한 초과)도 섞이므로 ok/rejected 보조 카운터를 같이 본다.
+ * VIRTUAL 은 JDK 21 이상에서만 뜬다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=WebExecutionLoadBenchmark -PjmhModes=thrpt,sample -PjmhThreads=400 -PjmhJvm=/path/to/jdk21/bin/java
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Threads(400)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WebExecutionLoadBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String mode;
+
+    /**
+     * web.execution.limiter.enabled. 기본값이 꺼져 있으므로 명시적으로 넘긴다.
+     */
+    @Param({"false", "true"})
+    public boolean limiter;
+
+    @Param({"100000"})
+    public int members;
+
+    @Param({"100"})
+    public int teams;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest searchV2;
+    private HttpRequest searchV3;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("web-" + mode + "-" + limiter + "-" + members,
+                "--spring.main.web-application-type=servlet",
+                "--server.port=0",
+                "--web.execution.mode=" + mode,
+                "--web.execution.limiter.enabled=" + limiter);
+        BenchmarkDatabase.seed(context, members, teams, 0);
+
+        final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        searchV2 = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v2/members?ageGoe=30&ageLoe=40&page=10&size=20")).build();
+        searchV3 = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v3/members?teamName=team7&page=0&size=20")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int searchMemberV2(final Responses responses) throws IOException, InterruptedException {
+        return responses.count(client.send(searchV2, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Benchmark
+    public int searchMemberV3(final Responses responses) throws IOException, InterruptedException {
+        return responses.count(client.send(searchV3, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Responses {
+
+        public long ok;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            rejected = 0;
+        }
+
+        int count(final int status) {
+            if (status == 200) {
+                ok++;
+            } else if (status == 503) {
+                rejected++;
+            }
+            return status;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package study.querydsl.autocomplete;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.entity.Member;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * username 접두사 자동완성. 시작할 때 username 을 스트리밍으로 읽어 {@link UsernameTrie} 를 만들고,
+ * 이후에는 커밋된 Member 변경만 반영하므로 조회할 때 DB 를 읽지 않는다.
+ * <p>
+ * 다 만들어지기 전에는 빈 결과를 돌려준다. 만드는 동안 커밋된 변경은 스캔과 이벤트 양쪽에 반영될 수 있어서,
+ * 이벤트가 나오지 않는 변경(StatelessSession, 벌크 연산)과 함께 {@link #rebuild()} 로 바로잡는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(UsernameAutocompleteProperties.class)
+public class UsernameAutocomplete {
+
+    private final UsernameAutocompleteProperties properties;
+    private final EntityManagerFactory emf;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private UsernameTrie trie;
+
+    public UsernameAutocomplete(final UsernameAutocompleteProperties properties, final EntityManagerFactory emf,
+                                final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.emf = emf;
+
+        Gauge.builder("member.autocomplete.memory", this, UsernameAutocomplete::estimatedBytes)
+                .baseUnit("bytes")
+                .description("username trie 추정 메모리")
+                .register(meterRegistry);
+        Gauge.builder("member.autocomplete.entries", this, autocomplete -> autocomplete.read(UsernameTrie::size))
+                .register(meterRegistry);
+        Gauge.builder("member.autocomplete.nodes", this, autocomplete -> autocomplete.read(UsernameTrie::nodeCount))
+                .register(meterRegistry);
+    }
+
+    public List<String> complete(final String prefix, final Integer limit) {
+        final int size = Math.min(limit == null ? properties.getDefaultLimit() : limit, properties.getMaxLimit());
+        lock.readLock().lock();
+        try {
+            return trie == null ? Collections.emptyList() : trie.complete(prefix == null ? "" : prefix, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        return read(UsernameTrie::estimatedBytes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 새 trie 를 만들어 바꿔 끼운다. 만드는 동안에도 기존 trie 로 응답한다.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final EntityManager em = emf.createEntityManager();
+        try (Stream<String> usernames = new JPAQueryFactory(em)
+                .select(member.username)
+                .from(member)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()) {
+            load(usernames.iterator());
+        } finally {
+            em.close();
+        }
+        log.info("username trie built: {} usernames, ~{} bytes in {} ms", read(UsernameTrie::size), estimatedBytes(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    void load(final Iterator<String> usernames) {
+        final UsernameTrie built = new UsernameTrie();
+        while (usernames.hasNext()) {
+            final String username = usernames.next();
+            if (username != null) {
+                built.add(username);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            trie = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (!event.isFor(Member.class)) {
+            return;
+        }
+        final String oldUsername = (String) event.getOldValue("username");
+        final String newUsername = (String) event.getNewValue("username");
+
+        lock.writeLock().lock();
+        try {
+            if (trie == null) {
+                return;
+            }
+            switch (event.getType()) {
+                case INSERT -> add(newUsername);
+                case DELETE -> remove(oldUsername);
+                case UPDATE -> {
+                    // 이전 상태를 모르면(detached merge) 다음 rebuild 까지 어긋난 채로 둔다.
+                    if (event.getOldState() == null || Objects.equals(oldUsername, newUsername)) {
+                        return;
+                    }
+                    remove(oldUsername);
+                    add(newUsername);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(final String username) {
+        if (username != null) {
+            trie.add(username);
+        }
+    }
+
+    private void remove(final String username) {
+        if (username != null) {
+            trie.remove(username);
+        }
+    }
+
+    private long read(final ToLongFunction<UsernameTrie> reader) {
+        lock.readLock().lock();
+        try {
+            return trie == null ? 0 : reader.applyAsLong(trie);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
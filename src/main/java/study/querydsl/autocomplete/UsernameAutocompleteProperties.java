@@ -0,0 +1,22 @@
+package study.querydsl.autocomplete;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.autocomplete")
+public class UsernameAutocompleteProperties {
+
+    private boolean enabled = true;
+
+    private int defaultLimit = 10;
+
+    private int maxLimit = 100;
+
+    /**
+     * 시작할 때 username 을 읽어 오는 스트리밍 쿼리의 fetch size.
+     */
+    private int fetchSize = 1000;
+}
@@ -0,0 +1,253 @@
+package study.querydsl.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * username 을 담는 radix trie. 공통 접두사를 간선 하나로 합쳐 두므로 노드 수가 username 수를 크게 넘지 않는다.
+ * 형제 노드는 간선 첫 글자 순으로 정렬되어 있어서 접두사 노드부터 깊이 우선으로 k 개만 모으면 사전순 상위 k 개가 된다.
+ * <p>
+ * 동기화하지 않으므로 호출하는 쪽에서 락을 잡는다.
+ */
+class UsernameTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private int size;
+    private int nodes = 1;
+
+    /**
+     * 같은 username 이 여러 번 들어오면 횟수만 센다.
+     */
+    void add(final String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            final int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                node.insertChild(-index - 1, new Node(key.substring(i)));
+                nodes++;
+                node = node.children[-index - 1];
+                break;
+            }
+
+            Node child = node.children[index];
+            final int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                child = split(node, index, common);
+            }
+            node = child;
+            i += common;
+        }
+        if (node.count++ == 0) {
+            size++;
+        }
+    }
+
+    /**
+     * @return 없는 username 이면 false
+     */
+    boolean remove(final String key) {
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            final int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            final Node child = node.children[index];
+            if (!key.startsWith(child.label, i)) {
+                return false;
+            }
+            path.add(node);
+            node = child;
+            i += child.label.length();
+        }
+        if (node.count == 0) {
+            return false;
+        }
+        if (--node.count > 0) {
+            return true;
+        }
+
+        size--;
+        if (node != root) {
+            compact(path.get(path.size() - 1), node);
+            if (path.size() > 1) {
+                final Node parent = path.get(path.size() - 1);
+                compact(path.get(path.size() - 2), parent);
+            }
+        }
+        return true;
+    }
+
+    List<String> complete(final String prefix, final int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Node node = root;
+        final StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int i = 0;
+        while (i < prefix.length()) {
+            final int index = node.indexOf(prefix.charAt(i));
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+            node = node.children[index];
+            final int common = commonPrefix(node.label, prefix, i);
+            if (i + common < prefix.length() && common < node.label.length()) {
+                return Collections.emptyList();
+            }
+            path.append(node.label);
+            i += common;
+        }
+
+        final List<String> result = new ArrayList<>(Math.min(limit, size));
+        collect(node, path, result, limit);
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int nodeCount() {
+        return nodes;
+    }
+
+    /**
+     * 64bit JVM, compressed oops 기준 추정치. 노드, 자식 배열, 간선 문자열을 더한다.
+     */
+    long estimatedBytes() {
+        return estimatedBytes(root);
+    }
+
+    private long estimatedBytes(final Node node) {
+        // 헤더 12 + label 4 + children 4 + count 4
+        long bytes = 24;
+        bytes += node.label.isEmpty() ? 0 : align(24) + align(16 + (long) node.label.length() * (isLatin1(node.label) ? 1 : 2));
+        if (node.children.length > 0) {
+            bytes += align(16 + 4L * node.children.length);
+            for (Node child : node.children) {
+                bytes += estimatedBytes(child);
+            }
+        }
+        return bytes;
+    }
+
+    private static void collect(final Node node, final StringBuilder path, final List<String> result, final int limit) {
+        if (node.count > 0) {
+            result.add(path.toString());
+        }
+        for (Node child : node.children) {
+            if (result.size() >= limit) {
+                return;
+            }
+            final int length = path.length();
+            path.append(child.label);
+            collect(child, path, result, limit);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * parent 의 index 번째 간선을 common 글자에서 나눠 중간 노드를 만든다.
+     */
+    private Node split(final Node parent, final int index, final int common) {
+        final Node child = parent.children[index];
+        final Node middle = new Node(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        middle.children = new Node[]{child};
+        parent.children[index] = middle;
+        nodes++;
+        return middle;
+    }
+
+    /**
+     * 비었거나 자식이 하나뿐인 node 를 정리한다. 자식이 하나면 간선을 이어 붙인다.
+     */
+    private void compact(final Node parent, final Node node) {
+        if (node.count > 0 || node == root) {
+            return;
+        }
+        final int index = parent.indexOf(node.label.charAt(0));
+        if (node.children.length == 0) {
+            parent.removeChild(index);
+            nodes--;
+        } else if (node.children.length == 1) {
+            final Node child = node.children[0];
+            child.label = node.label + child.label;
+            parent.children[index] = child;
+            nodes--;
+        }
+    }
+
+    private static int commonPrefix(final String label, final String key, final int offset) {
+        final int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isLatin1(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private int count;
+
+        private Node(final String label) {
+            this.label = label;
+        }
+
+        private int indexOf(final char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(final int index, final Node child) {
+            final Node[] grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            grown[index] = child;
+            children = grown;
+        }
+
+        private void removeChild(final int index) {
+            final Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 검색의 count 결과 캐시.
+ * <p>
+ * Member/Team 이 커밋되면 전부 비운다. 쓰기 중인 트랜잭션 안에서는 아직 커밋되지 않은 값을
+ * 캐시에 올리지 않도록 그냥 통과시킨다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberCountCacheProperties.class)
+public class MemberCountCache {
+
+    private final boolean enabled;
+    private final Cache<MemberSearchCondition, Long> cache;
+
+    public MemberCountCache(final MemberCountCacheProperties properties, final MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.count");
+    }
+
+    public long get(final MemberSearchCondition condition, final LongSupplier countQuery) {
+        if (!enabled || isWritingTransaction()) {
+            return countQuery.getAsLong();
+        }
+        return cache.get(condition.normalized(), key -> countQuery.getAsLong());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (event.isFor(Member.class) || event.isFor(Team.class)) {
+            log.debug("invalidate member count cache by {}", event);
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 엔티티 이벤트가 나오지 않는 변경(벌크 연산 등)을 한 쪽에서 부른다.
+     */
+    public void invalidateAll() {
+        log.debug("invalidate member count cache");
+        cache.invalidateAll();
+    }
+
+    private boolean isWritingTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * search 결과를 조건별로 캐시한다.
+ * <p>
+ * 결과 행 수를 가중치로 써서 큰 결과 하나가 자주 쓰이는 작은 결과들을 밀어내지 못하게 하고,
+ * Member/Team 이 커밋되면 바뀐 행이 들어갈 수 있었던 조건만 골라서 무효화한다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberSearchCacheProperties.class)
+public class MemberSearchCache {
+
+    private final boolean enabled;
+    private final Cache<MemberSearchCondition, List<MemberTeamDto>> cache;
+
+    public MemberSearchCache(final MemberSearchCacheProperties properties, final MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight())
+                .weigher((MemberSearchCondition key, List<MemberTeamDto> value) -> value.size() + 1)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.search");
+    }
+
+    public List<MemberTeamDto> get(final MemberSearchCondition condition, final Supplier<List<MemberTeamDto>> searchQuery) {
+        if (!enabled || isWritingTransaction()) {
+            return searchQuery.get();
+        }
+        return cache.get(condition.normalized(), key -> List.copyOf(searchQuery.get()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (event.getType() == EntityChangeEvent.Type.UPDATE && event.getOldState() == null
+                && (event.isFor(Member.class) || event.isFor(Team.class))) {
+            // merge 된 detached 엔티티처럼 이전 상태를 모르면 어느 조건에서 빠졌는지 알 수 없으므로 전부 비운다.
+            invalidateAll();
+        } else if (event.isFor(Member.class)) {
+            invalidateIf(key -> matchesBefore(key, event) || matchesAfter(key, event));
+        } else if (event.isFor(Team.class)) {
+            final Object oldName = event.getOldValue("name");
+            final Object newName = event.getNewValue("name");
+            if (event.getType() == EntityChangeEvent.Type.UPDATE && Objects.equals(oldName, newName)) {
+                return;
+            }
+            // 팀 이름은 결과 행에도 들어가므로, 팀 조건이 없는 캐시도 같이 비운다.
+            invalidateIf(key -> key.getTeamName() == null
+                    || key.getTeamName().equals(oldName)
+                    || key.getTeamName().equals(newName));
+        }
+    }
+
+    /**
+     * 엔티티 이벤트가 나오지 않는 변경(벌크 연산 등)을 한 쪽에서 부른다.
+     */
+    public void invalidateAll() {
+        log.debug("invalidate all member search cache entries");
+        cache.invalidateAll();
+    }
+
+    private void invalidateIf(final Predicate<MemberSearchCondition> affected) {
+        final List<MemberSearchCondition> keys = cache.asMap().keySet().stream()
+                .filter(affected)
+                .toList();
+        log.debug("invalidate {} member search cache entries", keys.size());
+        cache.invalidateAll(keys);
+    }
+
+    private static boolean matchesBefore(final MemberSearchCondition key, final EntityChangeEvent event) {
+        return event.getOldState() != null && matches(key,
+                (String) event.getOldValue("username"), (Integer) event.getOldValue("age"), (Team) event.getOldValue("team"));
+    }
+
+    private static boolean matchesAfter(final MemberSearchCondition key, final EntityChangeEvent event) {
+        return event.getState() != null && matches(key,
+                (String) event.getNewValue("username"), (Integer) event.getNewValue("age"), (Team) event.getNewValue("team"));
+    }
+
+    /**
+     * 해당 행이 이 조건에 걸리는지. 팀 이름을 확실히 알 수 없으면(초기화 안 된 프록시) 걸리는 것으로 본다.
+     */
+    private static boolean matches(final MemberSearchCondition key, final String username, final Integer age, final Team team) {
+        if (key.getUsername() != null && !key.getUsername().equals(username)) {
+            return false;
+        }
+        if (age != null && key.getAgeGoe() != null && age < key.getAgeGoe()) {
+            return false;
+        }
+        if (age != null && key.getAgeLoe() != null && age > key.getAgeLoe()) {
+            return false;
+        }
+        if (key.getTeamName() == null || (team != null && !Hibernate.isInitialized(team))) {
+            return true;
+        }
+        return team != null && key.getTeamName().equals(team.getName());
+    }
+
+    private boolean isWritingTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.search-cache")
+public class MemberSearchCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 캐시 전체에 담을 수 있는 결과 행 수의 합.
+     */
+    private long maximumWeight = 100_000;
+
+    /**
+     * 커밋 직전에 읽어 간 결과가 무효화 뒤에 들어오는 경합에 대비한 안전망.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,85 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * second-level-cache.enabled=true 이면 Hibernate 2차 캐시를 JCache 로 켜고,
+ * second-level-cache.regions 에 적힌 region 을 크기/만료 제한과 함께 미리 만든다.
+ * <p>
+ * Hibernate 는 EntityManagerFactory 를 닫을 때 넘겨받은 CacheManager 도 닫으므로,
+ * EntityManagerFactory 마다 고유한 URI 로 CacheManager 를 따로 만든다.
+ * 기본 CacheManager 를 같이 쓰면 한 쪽이 닫힐 때 다른 쪽 캐시도 사라지고, DB 가 다른 컨텍스트끼리 엔티티가 섞인다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "second-level-cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(final SecondLevelCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager(properties));
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CacheManager cacheManager(final SecondLevelCacheProperties properties) {
+        final CachingProvider provider = Caching.getCachingProvider(properties.getProvider());
+        final CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:querydsl:second-level-cache:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        properties.getRegions().forEach((name, region) -> {
+            cacheManager.createCache(name, configuration(provider, region));
+            log.info("second-level cache region {}: maximumSize={}, expireAfterWrite={}",
+                    name, region.getMaximumSize(), region.getExpireAfterWrite());
+        });
+        return cacheManager;
+    }
+
+    private static CompleteConfiguration<Object, Object> configuration(final CachingProvider provider,
+                                                                       final SecondLevelCacheProperties.RegionProperties region) {
+        if (provider instanceof CaffeineCachingProvider) {
+            final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            // Hibernate 가 넣는 값은 분해된 상태라 바뀌지 않으므로 직렬화 복사를 하지 않는다.
+            configuration.setStoreByValue(false);
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            if (region.getExpireAfterWrite() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            }
+            return configuration;
+        }
+
+        log.warn("{} is not Caffeine, maximumSize is not applied", provider.getClass().getName());
+        final MutableConfiguration<Object, Object> configuration = new MutableConfiguration<>();
+        configuration.setStoreByValue(false);
+        if (region.getExpireAfterWrite() != null) {
+            configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                    new Duration(TimeUnit.MILLISECONDS, region.getExpireAfterWrite().toMillis())));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "second-level-cache")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * JCache CachingProvider 클래스. Caffeine 이 아니면 maximumSize 는 적용되지 않는다.
+     */
+    private String provider = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    /**
+     * region 이름별 설정. 여기 없는 region 을 쓰는 엔티티가 있으면 기동에 실패한다.
+     */
+    private Map<String, RegionProperties> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class RegionProperties {
+
+        private long maximumSize = 10_000;
+
+        /**
+         * 비워두면 크기 제한으로만 내보낸다.
+         */
+        private Duration expireAfterWrite;
+    }
+}
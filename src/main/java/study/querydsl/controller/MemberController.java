@@ -1,32 +1,75 @@
 package study.querydsl.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.autocomplete.UsernameAutocomplete;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberIngestResult;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.exception.InvalidPageSizeException;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.SearchPlan;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberIngestService;
+import study.querydsl.service.MemberJsonWriter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    /**
+     * spring.data.web.pageable.max-page-size 의 기본값. /v2, /v3 의 Pageable 과 같은 상한을 둔다.
+     */
+    private static final int MAX_SLICE_SIZE = 2_000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final UsernameAutocomplete usernameAutocomplete;
+    private final MemberJsonWriter memberJsonWriter;
+    private final MemberIngestService memberIngestService;
 
     @GetMapping("/v1/members")
     public ResponseEntity<List<MemberTeamDto>> searchMemberV1(@ModelAttribute MemberSearchCondition condition) {
         return ResponseEntity.ok(memberJpaRepository.search(condition));
     }
 
+    /**
+     * searchMemberV1 과 같은 JSON 을 DTO 없이 JDBC 결과에서 바로 쓴다.
+     */
+    @GetMapping(value = "/v1/members", params = "serialization=direct")
+    public void searchMemberV1Direct(@ModelAttribute MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        memberJsonWriter.write(condition, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/v1/members/stream", produces = "application/x-ndjson")
+    public void searchMemberV1Stream(@ModelAttribute MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        memberExportService.exportNdjson(condition, response.getOutputStream());
+    }
+
     @GetMapping("/v2/members")
     public ResponseEntity<Page<MemberTeamDto>> searchMemberV2(@ModelAttribute MemberSearchCondition condition, Pageable pageable) {
         return ResponseEntity.ok(memberRepository.searchPageSimple(condition, pageable));
@@ -35,7 +78,38 @@ public class MemberController {
 
 
     @GetMapping("/v3/members")
-    public ResponseEntity<Page<MemberTeamDto>> searchMemberV3(@ModelAttribute MemberSearchCondition condition, @ModelAttribute Pageable pageable) {
-        return ResponseEntity.ok(memberRepository.searchPageComplex(condition, pageable));
+    public ResponseEntity<Page<MemberTeamDto>> searchMemberV3(@ModelAttribute MemberSearchCondition condition, @ModelAttribute Pageable pageable,
+                                                              @RequestParam(defaultValue = "OFFSET") SearchPlan plan) {
+        return ResponseEntity.ok(memberRepository.searchPageComplex(condition, pageable, plan));
+    }
+
+    @GetMapping("/v4/members")
+    public ResponseEntity<MemberSlice> searchMemberV4(@ModelAttribute MemberSearchCondition condition,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0) {
+            throw new InvalidPageSizeException(size);
+        }
+        final MemberCursor memberCursor = hasText(cursor) ? MemberCursor.decode(cursor) : null;
+        return ResponseEntity.ok(memberRepository.searchSlice(condition, memberCursor, Math.min(size, MAX_SLICE_SIZE)));
+    }
+
+    @GetMapping("/members/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(@RequestParam(defaultValue = "") String prefix,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(usernameAutocomplete.complete(prefix, limit));
+    }
+
+    /**
+     * 본문을 메모리에 올리지 않고 읽으면서 배치로 넣는다. JSON 배열이나 NDJSON 을 받는다.
+     */
+    @PostMapping(value = "/members/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<MemberIngestResult> bulkInsertJson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(memberIngestService.ingestJson(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/members/bulk", consumes = "text/csv")
+    public ResponseEntity<MemberIngestResult> bulkInsertCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(memberIngestService.ingestCsv(request.getInputStream()));
     }
 }
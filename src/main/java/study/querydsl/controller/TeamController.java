@@ -0,0 +1,35 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamRosterDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamFetchStrategy;
+import study.querydsl.repository.TeamRepository;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+    private final TeamStatsRepository teamStatsRepository;
+
+    @GetMapping("/teams")
+    public ResponseEntity<Page<TeamRosterDto>> teams(Pageable pageable,
+                                                     @RequestParam(defaultValue = "TWO_QUERY") TeamFetchStrategy strategy) {
+        return ResponseEntity.ok(teamRepository.findRoster(pageable, strategy));
+    }
+
+    @GetMapping("/teams/stats")
+    public ResponseEntity<List<TeamStatsDto>> teamStats() {
+        return ResponseEntity.ok(teamStatsRepository.findAll());
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.datagen;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "datagen")
+public class DataGeneratorProperties {
+
+    public enum AgeDistribution { UNIFORM, NORMAL }
+
+    @Min(0)
+    private int teams = 2;
+    @Min(0)
+    private long members = 100;
+
+    /**
+     * 팀 크기의 Zipf 지수. 0 이면 모든 팀이 비슷한 크기이고, 1 근처면 소수의 팀에 멤버가 몰린다.
+     */
+    @DecimalMin("0")
+    private double teamSkew = 0;
+
+    @NotNull
+    private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+    @Min(0)
+    private int ageMin = 0;
+    @Min(0)
+    private int ageMax = 99;
+
+    /**
+     * 서로 다른 username 의 수. 0 이면 모든 멤버가 고유한 username 을 갖는다.
+     */
+    @Min(0)
+    private long usernameCardinality = 0;
+
+    private long seed = 42L;
+
+    /**
+     * JDBC 배치 크기이자 한 트랜잭션에서 넣는 행 수.
+     */
+    @Min(1)
+    private int batchSize = 1_000;
+
+    @AssertTrue(message = "age-min 은 age-max 보다 클 수 없다")
+    boolean isAgeRangeValid() {
+        return ageMin <= ageMax;
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.datagen;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * datagen 프로파일에서 application-datagen.yml 의 설정으로 데이터를 채운다.
+ * local 프로파일의 작은 고정 데이터는 InitMember 가 넣는다.
+ */
+@Profile("datagen")
+@Component
+@RequiredArgsConstructor
+public class InitGeneratedData {
+
+    private final MemberDataGenerator memberDataGenerator;
+    private final DataGeneratorProperties dataGeneratorProperties;
+
+    @PostConstruct
+    public void init() {
+        memberDataGenerator.generate(dataGeneratorProperties);
+    }
+
+}
@@ -0,0 +1,134 @@
+package study.querydsl.datagen;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 실제 쿼리 플랜을 재현할 수 있을 만큼의 멤버/팀 데이터를 만든다.
+ * <p>
+ * 영속성 컨텍스트를 거치지 않는 StatelessSession 으로 JDBC 배치 insert 하므로 수백만 건도 힙이 늘지 않는다.
+ * 대신 Hibernate 이벤트가 발생하지 않으므로 캐시나 인메모리 인덱스가 만들어지기 전에 돌려야 한다.
+ * 같은 seed 와 설정이면 항상 같은 데이터가 나온다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class MemberDataGenerator {
+
+    private static final long LOG_EVERY = 1_000_000;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void generate(final DataGeneratorProperties properties) {
+        final long start = System.nanoTime();
+        final SplittableRandom random = new SplittableRandom(properties.getSeed());
+
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(properties.getBatchSize());
+
+            final Team[] teams = insertTeams(session, properties);
+            insertMembers(session, properties, teams, random);
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("generated {} teams and {} members in {} s ({} rows/s)",
+                properties.getTeams(), properties.getMembers(), String.format("%.1f", seconds),
+                Math.round((properties.getTeams() + properties.getMembers()) / seconds));
+    }
+
+    private Team[] insertTeams(final StatelessSession session, final DataGeneratorProperties properties) {
+        final Team[] teams = new Team[properties.getTeams()];
+        Transaction tx = session.beginTransaction();
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = Team.builder().name("team" + i).build();
+            session.insert(teams[i]);
+            if ((i + 1) % properties.getBatchSize() == 0) {
+                tx.commit();
+                tx = session.beginTransaction();
+            }
+        }
+        tx.commit();
+        return teams;
+    }
+
+    private void insertMembers(final StatelessSession session, final DataGeneratorProperties properties,
+                               final Team[] teams, final SplittableRandom random) {
+        final double[] teamCdf = zipfCdf(teams.length, properties.getTeamSkew());
+
+        Transaction tx = session.beginTransaction();
+        for (long i = 0; i < properties.getMembers(); i++) {
+            session.insert(Member.builder()
+                    .username(username(i, properties, random))
+                    .age(age(properties, random))
+                    .team(teams.length == 0 ? null : teams[sample(teamCdf, random)])
+                    .build());
+
+            if ((i + 1) % properties.getBatchSize() == 0) {
+                tx.commit();
+                tx = session.beginTransaction();
+            }
+            if ((i + 1) % LOG_EVERY == 0) {
+                log.info("generated {} / {} members", i + 1, properties.getMembers());
+            }
+        }
+        tx.commit();
+    }
+
+    private static String username(final long index, final DataGeneratorProperties properties, final SplittableRandom random) {
+        final long cardinality = properties.getUsernameCardinality();
+        return "member" + (cardinality > 0 ? random.nextLong(cardinality) : index);
+    }
+
+    private static int age(final DataGeneratorProperties properties, final SplittableRandom random) {
+        final int min = properties.getAgeMin();
+        final int max = properties.getAgeMax();
+        if (properties.getAgeDistribution() == DataGeneratorProperties.AgeDistribution.UNIFORM) {
+            return random.nextInt(min, max + 1);
+        }
+        // 범위의 가운데를 평균으로, 범위의 1/6 을 표준편차로 두고 범위 밖은 잘라낸다.
+        final double mean = (min + max) / 2.0;
+        final double stddev = (max - min) / 6.0;
+        final long age = Math.round(mean + stddev * gaussian(random));
+        return (int) Math.max(min, Math.min(max, age));
+    }
+
+    private static double gaussian(final SplittableRandom random) {
+        // Box-Muller
+        final double u1 = 1.0 - random.nextDouble();
+        final double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    /**
+     * k 번째 팀이 뽑힐 확률이 1 / (k+1)^skew 에 비례하는 누적 분포.
+     */
+    static double[] zipfCdf(final int size, final double skew) {
+        final double[] cdf = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    static int sample(final double[] cdf, final SplittableRandom random) {
+        final int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource 뒤에 있는 Hikari 풀을 꺼낸다. p6spy 로 감싸져 있어도 되고,
+ * {@link ReadWriteRoutingDataSource} 이면 primary 와 replica 풀을 모두 돌려준다.
+ */
+@Slf4j
+public final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    public static List<HikariDataSource> of(final DataSource dataSource) {
+        final List<HikariDataSource> pools = new ArrayList<>();
+        try {
+            if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                final ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+                addPool(pools, routing.getPrimary());
+                for (Replica replica : routing.getReplicas()) {
+                    addPool(pools, replica.getDataSource());
+                }
+            } else {
+                addPool(pools, dataSource);
+            }
+        } catch (SQLException e) {
+            log.warn("cannot unwrap connection pool", e);
+        }
+        return pools;
+    }
+
+    private static void addPool(final List<HikariDataSource> pools, final DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            pools.add(dataSource.unwrap(HikariDataSource.class));
+        }
+    }
+}
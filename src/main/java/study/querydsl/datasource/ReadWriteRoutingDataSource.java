@@ -0,0 +1,157 @@
+package study.querydsl.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code @Transactional(readOnly = true)} 안의 커넥션은 replica 로, 나머지는 primary 로 보낸다.
+ * <p>
+ * 트랜잭션 매니저는 readOnly 플래그를 트랜잭션 동기화에 올리기 전에 커넥션을 요청하므로,
+ * 실제 커넥션은 첫 문장을 실행할 때 얻도록 LazyConnectionDataSourceProxy 로 감싼다.
+ * replica 는 라운드 로빈으로 고르고, 내려갔거나 maxLag 보다 뒤처진 replica 는 건너뛴다.
+ * 쓸 수 있는 replica 가 없으면 primary 로 읽는다.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(final DataSource primary, final List<Replica> replicas, final Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+
+        final Router router = new Router();
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 헬스 체크를 interval 마다 돌린다. 첫 체크는 바로 한다.
+     */
+    public void startHealthCheck(final Duration interval) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        replicas.forEach(Replica::check);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 지금 커넥션을 얻는다면 어느 데이터소스로 갈지.
+     */
+    public String currentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        final Replica replica = selectReplica();
+        return replica != null ? replica.getName() : PRIMARY;
+    }
+
+    private Replica selectReplica() {
+        final int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            final Replica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable(maxLag)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica replicaNamed(final String name) {
+        for (Replica replica : replicas) {
+            if (replica.getName().equals(name)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return currentLookupKey();
+        }
+
+        /**
+         * replica 커넥션을 얻지 못하면 그 replica 를 내리고 primary 로 읽는다.
+         */
+        @Override
+        public Connection getConnection() throws SQLException {
+            final String key = currentLookupKey();
+            final Replica replica = PRIMARY.equals(key) ? null : replicaNamed(key);
+            if (replica == null) {
+                return primary.getConnection();
+            }
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e);
+                return primary.getConnection();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 읽기 전용 replica 하나와 마지막 헬스 체크 결과.
+ */
+@Slf4j
+public class Replica {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String name;
+    private final DataSource dataSource;
+    private final String lagQuery;
+
+    private volatile boolean healthy = true;
+    private volatile Duration lag = Duration.ZERO;
+
+    public Replica(final String name, final DataSource dataSource, final String lagQuery) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.lagQuery = hasText(lagQuery) ? lagQuery : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public Duration getLag() {
+        return lag;
+    }
+
+    public boolean isAvailable(final Duration maxLag) {
+        return healthy && lag.compareTo(maxLag) <= 0;
+    }
+
+    void markDown(final SQLException cause) {
+        if (healthy) {
+            log.warn("replica {} is down", name, cause);
+        }
+        healthy = false;
+    }
+
+    /**
+     * 커넥션이 유효한지, lagQuery 가 있으면 지연이 얼마인지 확인한다.
+     * 지연 값이 NULL 이면 복제가 멈춘 것으로 보고 내린다.
+     */
+    void check() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                healthy = false;
+                return;
+            }
+            if (lagQuery != null) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(lagQuery)) {
+                    final double seconds = rs.next() ? rs.getDouble(1) : 0;
+                    if (rs.wasNull()) {
+                        healthy = false;
+                        return;
+                    }
+                    lag = Duration.ofMillis((long) (seconds * 1000));
+                }
+            }
+            healthy = true;
+        } catch (SQLException e) {
+            markDown(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * datasource.routing.enabled=true 이면 spring.datasource 를 primary 로, datasource.routing.replicas 를 replica 로 쓰는
+ * {@link ReadWriteRoutingDataSource} 를 유일한 DataSource 빈으로 등록한다.
+ * primary 와 replica 풀은 빈이 아니므로 p6spy 는 라우팅 데이터소스만 한 번 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(final DataSourceProperties dataSourceProperties,
+                                                 final RoutingDataSourceProperties properties,
+                                                 final Environment environment) {
+
+        final HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+
+        final List<Replica> replicas = properties.getReplicas().stream()
+                .map(replica -> new Replica(replica.getName(), replicaDataSource(replica, dataSourceProperties), properties.getLagQuery()))
+                .toList();
+
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replicas, properties.getMaxLag());
+        dataSource.startHealthCheck(properties.getHealthCheckInterval());
+        return dataSource;
+    }
+
+    private static HikariDataSource replicaDataSource(final RoutingDataSourceProperties.ReplicaProperties replica,
+                                                      final DataSourceProperties primary) {
+        final HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .driverClassName(replica.getDriverClassName() != null ? replica.getDriverClassName() : primary.determineDriverClassName())
+                .build();
+        dataSource.setPoolName(replica.getName());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * 이보다 뒤처진 replica 로는 읽기를 보내지 않는다.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * replica 에서 지연(초)을 한 값으로 돌려주는 쿼리. 비워두면 지연은 0 으로 본다.
+     */
+    private String lagQuery;
+
+    private List<ReplicaProperties> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class ReplicaProperties {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
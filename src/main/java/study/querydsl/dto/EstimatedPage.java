@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * totalElements 가 정확한 count 가 아니라 통계나 인메모리 인덱스로 추정한 값인 페이지. 응답에 "approximate": true 로 나간다.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    public EstimatedPage(final List<T> content, final Pageable pageable, final long estimatedTotal) {
+        super(content, pageable, estimatedTotal);
+    }
+
+    public boolean isApproximate() {
+        return true;
+    }
+}
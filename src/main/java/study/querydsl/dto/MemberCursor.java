@@ -0,0 +1,37 @@
+package study.querydsl.dto;
+
+import study.querydsl.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징 커서. 마지막으로 내려준 행의 (age, member_id) 를 담는다.
+ * 클라이언트에게는 Base64 문자열로만 노출되므로 내부 형식은 언제든 바꿀 수 있다.
+ */
+public record MemberCursor(int age, long memberId) {
+
+    private static final String DELIMITER = ":";
+
+    public String encode() {
+        final String raw = age + DELIMITER + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(final String cursor) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = raw.split(DELIMITER);
+            if (parts.length != 2) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new MemberCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static MemberCursor of(final MemberTeamDto last) {
+        return new MemberCursor(last.getAge(), last.getMemberId());
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Getter
+@Builder
+@ToString
+public class MemberIngestResult {
+
+    private long received;
+    private long inserted;
+    private long failed;
+    private int batches;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    /**
+     * 입력을 끝까지 읽었는지. 본문이 깨져 중간에 멈췄으면 false 다.
+     */
+    private boolean completed;
+    private List<BatchError> errors;
+
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class BatchError {
+
+        private int batch;
+        private long firstRow;
+        private long lastRow;
+        private long failedRows;
+        private List<String> messages;
+    }
+}
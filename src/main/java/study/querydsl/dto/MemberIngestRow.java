@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * POST /members/bulk 의 한 행. teamName 이 비어 있으면 팀 없이 넣는다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberIngestRow {
+
+    private String username;
+    private Integer age;
+    private String teamName;
+}
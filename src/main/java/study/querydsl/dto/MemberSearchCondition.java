@@ -3,6 +3,8 @@ package study.querydsl.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 @Builder
 public class MemberSearchCondition {
@@ -11,4 +13,16 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+
+    /**
+     * 검색 결과에 영향을 주지 않는 차이(빈 문자열 등)를 없앤 조건. 캐시 키로 쓴다.
+     */
+    public MemberSearchCondition normalized() {
+        return MemberSearchCondition.builder()
+                .username(hasText(username) ? username : null)
+                .teamName(hasText(teamName) ? teamName : null)
+                .ageGoe(ageGoe)
+                .ageLoe(ageLoe)
+                .build();
+    }
 }
@@ -0,0 +1,100 @@
+package study.querydsl.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * GET /actuator/ormperf 응답. 카운터는 since 이후(기동 또는 마지막 reset) 누적값이고, 커넥션 풀은 지금 값이다.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Getter
+@Builder
+@ToString
+public class OrmPerfReport {
+
+    /**
+     * hibernate.generate_statistics 가 꺼져 있으면 false 이고 카운터는 모두 0 이다.
+     */
+    private boolean statisticsEnabled;
+    private Instant since;
+
+    private long sessionsOpened;
+    private long transactions;
+    private long flushes;
+    private long statementsPrepared;
+
+    private long queryPlanCacheHits;
+    private long queryPlanCacheMisses;
+    private double queryPlanCacheHitRatio;
+
+    private List<EntityStats> entities;
+    private List<QueryStats> slowestQueries;
+    private List<CacheRegionStats> cacheRegions;
+    private List<PoolStats> pools;
+
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class EntityStats {
+
+        private String entity;
+        private long loads;
+
+        /**
+         * 지연 로딩 프록시/컬렉션을 초기화하려고 따로 읽은 횟수. 높으면 N+1 을 의심한다.
+         */
+        private long fetches;
+        private long inserts;
+        private long updates;
+        private long deletes;
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class QueryStats {
+
+        private String query;
+        private long executions;
+        private long rows;
+        private long maxMillis;
+        private long avgMillis;
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class CacheRegionStats {
+
+        private String region;
+        private long hits;
+        private long misses;
+        private long puts;
+        private long elements;
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class PoolStats {
+
+        private String pool;
+        private int active;
+        private int idle;
+        private int total;
+        private int pending;
+        private int max;
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Getter
+@Builder
+@ToString
+public class TeamRosterDto {
+
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members;
+}
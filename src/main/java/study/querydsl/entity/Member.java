@@ -2,6 +2,9 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import static jakarta.persistence.FetchType.*;
 
@@ -11,9 +14,13 @@ import static jakarta.persistence.FetchType.*;
 @AllArgsConstructor
 @Builder
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = @Index(name = "idx_member_age_id", columnList = "age, member_id"))
 public class Member {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "Member_SEQ"))
     @Column(name = "member_id")
     private Long id;
     private String username;
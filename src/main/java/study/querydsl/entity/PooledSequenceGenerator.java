@@ -0,0 +1,40 @@
+package study.querydsl.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 시퀀스 한 번 호출로 block-size 개의 id 를 미리 잡아두는 시퀀스 생성기.
+ * <p>
+ * 어노테이션의 allocationSize 는 컴파일 타임 상수라서, 블록 크기와 옵티마이저를
+ * hibernate 설정(spring.jpa.properties.querydsl.id.*)에서 읽도록 감쌌다.
+ * 블록 크기를 바꾸면 DB 시퀀스의 increment 도 같이 바꿔야 한다(ddl-auto 가 create 가 아니라면).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String BLOCK_SIZE_SETTING = "querydsl.id.block_size";
+    public static final String OPTIMIZER_SETTING = "querydsl.id.optimizer";
+
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+    private static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    @Override
+    public void configure(final Type type, final Properties parameters, final ServiceRegistry serviceRegistry) throws MappingException {
+        final ConfigurationService configuration = serviceRegistry.getService(ConfigurationService.class);
+
+        final int blockSize = configuration.getSetting(BLOCK_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+        final String optimizer = configuration.getSetting(OPTIMIZER_SETTING, StandardConverters.STRING, DEFAULT_OPTIMIZER);
+
+        parameters.setProperty(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(blockSize));
+        parameters.setProperty(OptimizableGenerator.OPT_PARAM, optimizer);
+
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,11 +1,17 @@
 package study.querydsl.entity;
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,10 +22,20 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Team.CACHE_REGION)
 public class Team {
 
+    /**
+     * 2차 캐시 region. second-level-cache.regions 에 같은 이름으로 크기를 정해야 한다.
+     * members 컬렉션은 캐시하지 않는다. Member 가 캐시되지 않으므로 컬렉션 캐시가 맞아도 member 를 다시 읽어야 한다.
+     */
+    public static final String CACHE_REGION = "team";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq")
+    @GenericGenerator(name = "team_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "Team_SEQ"))
     private Long id;
     private String name;
 
@@ -0,0 +1,43 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * 팀별, 나이별 member 수. member 가 바뀔 때마다 TeamStatsMaintainer 가 증감한다.
+ * count/sum/avg 는 물론 min/max 도 이 행들만으로 구할 수 있어서, member 를 지워도 member 테이블을 다시 읽을 필요가 없다.
+ * 스키마를 만들기 위한 매핑이고, 읽고 쓰는 건 TeamStatsRepository 가 JDBC 로 한다.
+ */
+@Entity
+@Table(name = "team_stats")
+@IdClass(TeamStats.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Id
+    private int age;
+
+    @Column(name = "member_count")
+    private long memberCount;
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long teamId;
+        private int age;
+    }
+}
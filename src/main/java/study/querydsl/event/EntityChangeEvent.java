@@ -0,0 +1,60 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Hibernate 가 flush 하면서 엔티티를 insert/update/delete 했을 때 발행된다.
+ * <p>
+ * 트랜잭션 안에서 발행되므로, 커밋된 상태만 봐야 하는 구독자는
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)} 로 받는다.
+ */
+@Getter
+@ToString(of = {"type", "entity"})
+public class EntityChangeEvent {
+
+    public enum Type { INSERT, UPDATE, DELETE }
+
+    private final Type type;
+    private final Object entity;
+    private final String[] propertyNames;
+    private final Object[] oldState;
+    private final Object[] state;
+
+    public EntityChangeEvent(final Type type, final Object entity, final String[] propertyNames,
+                             final Object[] oldState, final Object[] state) {
+        this.type = type;
+        this.entity = entity;
+        this.propertyNames = propertyNames;
+        this.oldState = oldState;
+        this.state = state;
+    }
+
+    public boolean isFor(final Class<?> entityClass) {
+        return entityClass.isInstance(entity);
+    }
+
+    /**
+     * 변경 전 값. INSERT 이거나 Hibernate 가 이전 상태를 모르는 경우(detached merge 등) null 이다.
+     */
+    public Object getOldValue(final String propertyName) {
+        return valueOf(oldState, propertyName);
+    }
+
+    /**
+     * 변경 후 값. DELETE 의 경우 null 이다.
+     */
+    public Object getNewValue(final String propertyName) {
+        return valueOf(state, propertyName);
+    }
+
+    private Object valueOf(final Object[] values, final String propertyName) {
+        if (values == null) {
+            return null;
+        }
+        final int index = Arrays.asList(propertyNames).indexOf(propertyName);
+        return index < 0 ? null : values[index];
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate 의 post insert/update/delete 이벤트를 스프링 {@link EntityChangeEvent} 로 옮긴다.
+ * JPQL 벌크 연산과 StatelessSession 은 이벤트를 발생시키지 않는다는 점에 주의.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventPublisher implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Type.INSERT, event.getEntity(),
+                event.getPersister().getPropertyNames(), null, event.getState()));
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE, event.getEntity(),
+                event.getPersister().getPropertyNames(), event.getOldState(), event.getState()));
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Type.DELETE, event.getEntity(),
+                event.getPersister().getPropertyNames(), event.getDeletedState(), null));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(final EntityPersister persister) {
+        return false;
+    }
+}
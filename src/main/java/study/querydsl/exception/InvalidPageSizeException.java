@@ -0,0 +1,12 @@
+package study.querydsl.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageSizeException extends IllegalArgumentException {
+
+    public InvalidPageSizeException(final int size) {
+        super("size must be positive: " + size);
+    }
+}
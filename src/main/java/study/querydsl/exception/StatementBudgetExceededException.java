@@ -0,0 +1,8 @@
+package study.querydsl.exception;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(final String message) {
+        super(message);
+    }
+}
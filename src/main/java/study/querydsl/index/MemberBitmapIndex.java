@@ -0,0 +1,310 @@
+package study.querydsl.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 나이/팀 조건을 member id 비트맵({@link MemberBitmaps})으로 푼다.
+ * 결과는 정렬된 id 집합이라 페이지에 해당하는 id 만 잘라 조인하면 되고, 전체 건수는 비트맵 크기로 바로 나온다.
+ * <p>
+ * 시작할 때 만들고 커밋된 Member/Team 변경을 반영한다. 만드는 동안 커밋된 변경은 쌓아 뒀다가 다 만든 뒤 다시 반영한다.
+ * 이벤트가 나오지 않는 변경(StatelessSession, 벌크 연산)은 주기적인 {@link #rebuild()} 로 맞추고,
+ * 그 전에 조회하다 발견한 어긋난 id 는 {@link #correct} 로 바로잡는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberBitmapIndexProperties.class)
+public class MemberBitmapIndex {
+
+    private final MemberBitmapIndexProperties properties;
+    private final EntityManagerFactory emf;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MemberBitmaps bitmaps;
+    private List<EntityChangeEvent> pending;
+    // int 범위를 넘는 id 가 나오면 비트맵에 담을 수 없으므로 인덱스를 쓰지 않는다.
+    private volatile boolean overflowed;
+
+    public MemberBitmapIndex(final MemberBitmapIndexProperties properties, final EntityManagerFactory emf,
+                             final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.emf = emf;
+
+        Gauge.builder("member.bitmap.index.memory", this, index -> index.read(MemberBitmaps::sizeInBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("member.bitmap.index.memory.per.million", this, MemberBitmapIndex::bytesPerMillion)
+                .baseUnit("bytes")
+                .description("member 백만 명당 비트맵 크기")
+                .register(meterRegistry);
+    }
+
+    /**
+     * username 조건처럼 인덱스에 없는 조건이 있거나, 인덱스를 쓸 수 없으면 빈 값을 돌려준다.
+     * 쓰는 트랜잭션 안에서는 아직 커밋되지 않은 자기 변경을 봐야 하므로 쓰지 않는다.
+     */
+    public Optional<RoaringBitmap> match(final MemberSearchCondition condition) {
+        if (!properties.isEnabled() || overflowed || hasText(condition.getUsername())
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (bitmaps == null) {
+                return Optional.empty();
+            }
+            return Optional.of(bitmaps.match(condition.getAgeGoe(), condition.getAgeLoe(),
+                    hasText(condition.getTeamName()) ? condition.getTeamName() : null));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * offset 번째부터 size 개의 id.
+     */
+    public static List<Long> slice(final RoaringBitmap ids, final long offset, final int size) {
+        final long cardinality = ids.getLongCardinality();
+        if (offset >= cardinality) {
+            return List.of();
+        }
+        final List<Long> result = new ArrayList<>((int) Math.min(size, cardinality - offset));
+        final PeekableIntIterator iterator = ids.getIntIterator();
+        iterator.advanceIfNeeded(ids.select(Math.toIntExact(offset)));
+        while (iterator.hasNext() && result.size() < size) {
+            result.add((long) iterator.next());
+        }
+        return result;
+    }
+
+    public double bytesPerMillion() {
+        lock.readLock().lock();
+        try {
+            if (bitmaps == null || bitmaps.cardinality() == 0) {
+                return 0;
+            }
+            return bitmaps.sizeInBytes() * 1_000_000d / bitmaps.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.bitmap-index.rebuild-interval:PT10M}",
+            initialDelayString = "${member.bitmap-index.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 새 인덱스를 만들어 바꿔 끼운다. 만드는 동안에도 기존 인덱스로 응답한다.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        MemberBitmaps built = null;
+        try {
+            overflowed = false;
+            built = build();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built != null) {
+                    for (EntityChangeEvent event : pending) {
+                        apply(built, event);
+                    }
+                    built.runOptimize();
+                    bitmaps = built;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("member bitmap index built: {} members, {} bytes in {} ms", read(MemberBitmaps::cardinality),
+                read(MemberBitmaps::sizeInBytes), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션과 상관없이 따로 EntityManager 를 열어 커밋된 데이터로 만든다.
+     */
+    MemberBitmaps build() {
+        final EntityManager em = emf.createEntityManager();
+        try {
+            return build(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    MemberBitmaps build(final EntityManager em) {
+        final JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        final MemberBitmaps built = new MemberBitmaps();
+
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            built.putTeam(row.get(team.id), row.get(team.name));
+        }
+        try (Stream<Tuple> rows = queryFactory
+                .select(member.id, member.age, member.team.id)
+                .from(member)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()) {
+            rows.forEach(row -> {
+                final Integer id = toInt(row.get(member.id));
+                if (id != null) {
+                    built.add(id, row.get(member.age), row.get(member.team.id));
+                }
+            });
+        }
+        return built;
+    }
+
+    /**
+     * 조인해 보니 조건에 맞지 않았던 id 들을 DB 의 지금 나이/팀으로 다시 넣는다. 지워진 member 는 뺀다.
+     * 이벤트가 나오지 않는 변경을 다음 재구성 전에 발견했을 때 쓴다.
+     */
+    public void correct(final EntityManager em, final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final List<Tuple> rows = new JPAQueryFactory(em)
+                .select(member.id, member.age, member.team.id)
+                .from(member)
+                .where(member.id.in(ids))
+                .fetch();
+
+        lock.writeLock().lock();
+        try {
+            if (bitmaps == null) {
+                return;
+            }
+            for (Long id : ids) {
+                bitmaps.remove(id.intValue(), null, null, false);
+            }
+            for (Tuple row : rows) {
+                bitmaps.add(row.get(member.id).intValue(), row.get(member.age), row.get(member.team.id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("corrected {} stale member ids in bitmap index", ids.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (!event.isFor(Member.class) && !event.isFor(Team.class)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (bitmaps != null) {
+                apply(bitmaps, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(final MemberBitmaps target, final EntityChangeEvent event) {
+        if (event.isFor(Team.class)) {
+            final Team changed = (Team) event.getEntity();
+            if (event.getType() == EntityChangeEvent.Type.DELETE) {
+                target.removeTeam(changed.getId());
+            } else {
+                target.putTeam(changed.getId(), (String) event.getNewValue("name"));
+            }
+            return;
+        }
+
+        final Integer id = toInt(((Member) event.getEntity()).getId());
+        if (id == null) {
+            return;
+        }
+        if (event.getType() != EntityChangeEvent.Type.INSERT) {
+            target.remove(id, (Integer) event.getOldValue("age"), teamIdOf(event.getOldValue("team")),
+                    event.getOldState() != null);
+        }
+        if (event.getType() != EntityChangeEvent.Type.DELETE) {
+            target.add(id, (Integer) event.getNewValue("age"), teamIdOf(event.getNewValue("team")));
+        }
+    }
+
+    private Integer toInt(final Long id) {
+        if (id > Integer.MAX_VALUE) {
+            if (!overflowed) {
+                log.warn("member id {} 가 int 범위를 넘어 비트맵 인덱스를 끕니다.", id);
+            }
+            overflowed = true;
+            return null;
+        }
+        return id.intValue();
+    }
+
+    private static Long teamIdOf(final Object team) {
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private long read(final ToLongFunction<MemberBitmaps> reader) {
+        lock.readLock().lock();
+        try {
+            return bitmaps == null ? 0 : reader.applyAsLong(bitmaps);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.index;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.bitmap-index")
+public class MemberBitmapIndexProperties {
+
+    /**
+     * 켜면 searchPageComplex 의 BITMAP_INDEX plan 이 나이/팀 조건을 메모리 인덱스로 푼다.
+     */
+    private boolean enabled = false;
+
+    private int fetchSize = 1000;
+}
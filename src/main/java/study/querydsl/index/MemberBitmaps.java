@@ -0,0 +1,118 @@
+package study.querydsl.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 나이 값마다, 팀마다 member id 비트맵을 하나씩 둔다.
+ * 동기화하지 않으므로 호출하는 쪽에서 락을 잡는다.
+ */
+class MemberBitmaps {
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final NavigableMap<Integer, RoaringBitmap> byAge = new TreeMap<>();
+    private final Map<Long, RoaringBitmap> byTeam = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+
+    void putTeam(final long teamId, final String name) {
+        teamNames.put(teamId, name);
+    }
+
+    void removeTeam(final long teamId) {
+        teamNames.remove(teamId);
+        byTeam.remove(teamId);
+    }
+
+    void add(final int id, final int age, final Long teamId) {
+        all.add(id);
+        byAge.computeIfAbsent(age, key -> new RoaringBitmap()).add(id);
+        if (teamId != null) {
+            byTeam.computeIfAbsent(teamId, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    /**
+     * 이전 나이/팀을 알면 그 비트맵에서만, 모르면 전부에서 지운다.
+     */
+    void remove(final int id, final Integer age, final Long teamId, final boolean known) {
+        all.remove(id);
+        if (known) {
+            removeFrom(byAge, age, id);
+            removeFrom(byTeam, teamId, id);
+        } else {
+            byAge.values().forEach(bitmap -> bitmap.remove(id));
+            byTeam.values().forEach(bitmap -> bitmap.remove(id));
+            byAge.values().removeIf(RoaringBitmap::isEmpty);
+            byTeam.values().removeIf(RoaringBitmap::isEmpty);
+        }
+    }
+
+    /**
+     * 나이 범위는 값마다의 비트맵을 합치고, 팀 이름에 해당하는 팀들의 비트맵과 AND 한다.
+     * 돌려주는 비트맵은 새로 만든 것이라 락 밖에서 써도 된다.
+     */
+    RoaringBitmap match(final Integer ageGoe, final Integer ageLoe, final String teamName) {
+        RoaringBitmap result;
+        if (ageGoe == null && ageLoe == null) {
+            result = all.clone();
+        } else {
+            final int from = ageGoe == null ? Integer.MIN_VALUE : ageGoe;
+            final int to = ageLoe == null ? Integer.MAX_VALUE : ageLoe;
+            result = from > to ? new RoaringBitmap() : FastAggregation.or(byAge.subMap(from, true, to, true).values().iterator());
+        }
+
+        if (teamName != null) {
+            final List<RoaringBitmap> teams = new ArrayList<>();
+            teamNames.forEach((teamId, name) -> {
+                final RoaringBitmap members = byTeam.get(teamId);
+                if (members != null && Objects.equals(name, teamName)) {
+                    teams.add(members);
+                }
+            });
+            result.and(teams.size() == 1 ? teams.get(0) : FastAggregation.or(teams.iterator()));
+        }
+        return result;
+    }
+
+    void runOptimize() {
+        all.runOptimize();
+        byAge.values().forEach(RoaringBitmap::runOptimize);
+        byTeam.values().forEach(RoaringBitmap::runOptimize);
+    }
+
+    long cardinality() {
+        return all.getLongCardinality();
+    }
+
+    long sizeInBytes() {
+        long bytes = all.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : byAge.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        for (RoaringBitmap bitmap : byTeam.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static <K> void removeFrom(final Map<K, RoaringBitmap> bitmaps, final K key, final int id) {
+        if (key == null) {
+            return;
+        }
+        final RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.metrics;
+
+/**
+ * 현재 스레드가 실행한 JDBC 문장 수와 커넥션을 얻느라 기다린 시간의 누적값.
+ * 구간 측정은 시작/끝 값의 차이로 한다.
+ */
+public final class JdbcActivity {
+
+    private static final ThreadLocal<JdbcActivity> CURRENT = ThreadLocal.withInitial(JdbcActivity::new);
+
+    private long statements;
+    private long connectionAcquireNanos;
+    private StatementBudgetScope budget;
+
+    private JdbcActivity() {
+    }
+
+    public static JdbcActivity current() {
+        return CURRENT.get();
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getConnectionAcquireNanos() {
+        return connectionAcquireNanos;
+    }
+
+    StatementBudgetScope getBudget() {
+        return budget;
+    }
+
+    void setBudget(final StatementBudgetScope budget) {
+        this.budget = budget;
+    }
+
+    void statementExecuted(final String sql) {
+        statements++;
+        if (budget != null) {
+            budget.statementExecuted(statements, sql);
+        }
+    }
+
+    void connectionAcquired(final long nanos) {
+        connectionAcquireNanos += nanos;
+    }
+}
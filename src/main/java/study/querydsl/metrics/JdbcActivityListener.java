@@ -0,0 +1,26 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 감싼 DataSource 에서 발생하는 JDBC 이벤트를 {@link JdbcActivity} 에 쌓는다.
+ * p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동으로 등록한다.
+ */
+@Component
+public class JdbcActivityListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(final StatementInformation statementInformation, final long timeElapsedNanos, final SQLException e) {
+        JdbcActivity.current().statementExecuted(statementInformation.getSql());
+    }
+
+    @Override
+    public void onAfterGetConnection(final ConnectionInformation connectionInformation, final SQLException e) {
+        JdbcActivity.current().connectionAcquired(connectionInformation.getTimeToGetConnectionNs());
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.OrmPerfReport;
+
+/**
+ * GET /actuator/ormperf 로 {@link OrmPerfReport} 를 보고, DELETE 로 통계를 초기화한다.
+ * <p>
+ * 통계를 지우거나 쿼리 문장을 볼 수 있으므로 애플리케이션 포트가 아니라 actuator 로 둔다.
+ * management.endpoints.web.exposure.include 에 넣어야 노출되고, management.server.port 로 포트를 분리한다.
+ */
+@Component
+@Endpoint(id = "ormperf")
+@RequiredArgsConstructor
+public class OrmPerfEndpoint {
+
+    private static final int DEFAULT_SLOWEST = 10;
+
+    private final OrmPerfReporter ormPerfReporter;
+
+    @ReadOperation
+    public OrmPerfReport perf(@Nullable final Integer slowest) {
+        return ormPerfReporter.report(slowest != null ? slowest : DEFAULT_SLOWEST);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        ormPerfReporter.reset();
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.metrics;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import study.querydsl.datasource.ConnectionPools;
+import study.querydsl.dto.OrmPerfReport;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hibernate Statistics 와 Hikari 풀 상태를 한 번에 모은다.
+ * <p>
+ * 커넥션 풀은 spring.datasource 풀 하나 또는 라우팅 데이터소스의 primary/replica 풀들이다.
+ * 아직 커넥션을 한 번도 얻지 않은 풀은 모두 0 으로 보인다.
+ */
+@Slf4j
+@Component
+public class OrmPerfReporter {
+
+    private final Statistics statistics;
+    private final DataSource dataSource;
+
+    public OrmPerfReporter(final EntityManagerFactory emf, final DataSource dataSource) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param slowestQueries 최대 실행 시간이 긴 순서로 돌려줄 JPQL 수
+     */
+    public OrmPerfReport report(final int slowestQueries) {
+        final long planHits = statistics.getQueryPlanCacheHitCount();
+        final long planMisses = statistics.getQueryPlanCacheMissCount();
+        return OrmPerfReport.builder()
+                .statisticsEnabled(statistics.isStatisticsEnabled())
+                .since(statistics.getStart())
+                .sessionsOpened(statistics.getSessionOpenCount())
+                .transactions(statistics.getTransactionCount())
+                .flushes(statistics.getFlushCount())
+                .statementsPrepared(statistics.getPrepareStatementCount())
+                .queryPlanCacheHits(planHits)
+                .queryPlanCacheMisses(planMisses)
+                .queryPlanCacheHitRatio(planHits + planMisses == 0 ? 0 : (double) planHits / (planHits + planMisses))
+                .entities(entities())
+                .slowestQueries(slowestQueries(slowestQueries))
+                .cacheRegions(cacheRegions())
+                .pools(pools())
+                .build();
+    }
+
+    /**
+     * Hibernate 카운터를 0 으로 되돌린다. 부하 테스트를 돌릴 때마다 앞 실행의 값을 지우는 용도다.
+     */
+    public void reset() {
+        statistics.clear();
+        log.info("hibernate statistics reset");
+    }
+
+    private List<OrmPerfReport.EntityStats> entities() {
+        return Arrays.stream(statistics.getEntityNames())
+                .sorted()
+                .map(name -> {
+                    final EntityStatistics entity = statistics.getEntityStatistics(name);
+                    return new OrmPerfReport.EntityStats(name.substring(name.lastIndexOf('.') + 1),
+                            entity.getLoadCount(), entity.getFetchCount(),
+                            entity.getInsertCount(), entity.getUpdateCount(), entity.getDeleteCount());
+                })
+                .toList();
+    }
+
+    private List<OrmPerfReport.QueryStats> slowestQueries(final int limit) {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> {
+                    final QueryStatistics stats = statistics.getQueryStatistics(query);
+                    return new OrmPerfReport.QueryStats(query, stats.getExecutionCount(), stats.getExecutionRowCount(),
+                            stats.getExecutionMaxTime(), stats.getExecutionAvgTime());
+                })
+                .filter(query -> query.getExecutions() > 0)
+                .sorted(Comparator.comparingLong(OrmPerfReport.QueryStats::getMaxMillis).reversed()
+                        .thenComparing(Comparator.comparingLong(OrmPerfReport.QueryStats::getExecutions).reversed()))
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    private List<OrmPerfReport.CacheRegionStats> cacheRegions() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    final CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                    return new OrmPerfReport.CacheRegionStats(region, stats.getHitCount(), stats.getMissCount(),
+                            stats.getPutCount(), stats.getElementCountInMemory());
+                })
+                .toList();
+    }
+
+    private List<OrmPerfReport.PoolStats> pools() {
+        return ConnectionPools.of(dataSource).stream()
+                .map(hikari -> {
+                    final HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    return pool == null
+                            ? new OrmPerfReport.PoolStats(hikari.getPoolName(), 0, 0, 0, 0, hikari.getMaximumPoolSize())
+                            : new OrmPerfReport.PoolStats(hikari.getPoolName(), pool.getActiveConnections(),
+                            pool.getIdleConnections(), pool.getTotalConnections(), pool.getThreadsAwaitingConnection(),
+                            hikari.getMaximumPoolSize());
+                })
+                .toList();
+    }
+}
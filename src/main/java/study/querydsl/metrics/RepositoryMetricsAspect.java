@@ -0,0 +1,131 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
+import study.querydsl.repository.MemberSearchTemplates;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 리포지토리 메서드마다 지연 시간, 반환 행 수, 실행한 SQL 문장 수, 커넥션 획득 대기 시간을 기록한다.
+ * 태그는 repository, method 와 MemberSearchCondition 의 술어 조합(shape)이다.
+ * <p>
+ * 대상은 {@code @Repository} 클래스와 스프링 데이터 리포지토리 인터페이스뿐이고, 같은 패키지의 다른 빈은 재지 않는다.
+ * *RepositoryCustom 메서드는 스프링 데이터 프록시가 구현체로 위임하므로 구현체 쪽에서만 잰다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private static final String NO_CONDITION = "n/a";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * *(..)) && @within(org.springframework.stereotype.Repository)"
+            + " || this(org.springframework.data.repository.Repository)"
+            + " && !execution(* study.querydsl.repository.*Custom.*(..))")
+    public Object measure(final ProceedingJoinPoint joinPoint) throws Throwable {
+
+        final Tags tags = Tags.of(
+                "repository", repositoryName(joinPoint.getThis()),
+                "method", joinPoint.getSignature().getName(),
+                "shape", shapeOf(joinPoint.getArgs()));
+
+        final JdbcActivity activity = JdbcActivity.current();
+        final long statementsBefore = activity.getStatements();
+        final long connectionAcquireBefore = activity.getConnectionAcquireNanos();
+        final long start = System.nanoTime();
+
+        String outcome = "success";
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+
+            Timer.builder("repository.invocations")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+
+            DistributionSummary.builder("repository.rows")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(rowsOf(result));
+
+            DistributionSummary.builder("repository.statements")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(activity.getStatements() - statementsBefore);
+
+            Timer.builder("repository.connection.acquire")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(activity.getConnectionAcquireNanos() - connectionAcquireBefore, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String repositoryName(final Object proxy) {
+        if (Proxy.isProxyClass(proxy.getClass())) {
+            final Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxy.getClass().getSimpleName();
+        }
+        return ClassUtils.getUserClass(proxy).getSimpleName();
+    }
+
+    private static String shapeOf(final Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return MemberSearchTemplates.describe(condition);
+            }
+        }
+        return NO_CONDITION;
+    }
+
+    private static long rowsOf(final Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof MemberSlice slice) {
+            return slice.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream<?> || result instanceof Number) {
+            // 스트림은 소비되기 전이라 셀 수 없고, 숫자(count 등)는 행이 아니다.
+            return 0;
+        }
+        return 1;
+    }
+}
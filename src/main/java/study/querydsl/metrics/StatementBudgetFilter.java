@@ -0,0 +1,62 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.exception.StatementBudgetExceededException;
+
+import java.io.IOException;
+
+/**
+ * 요청 하나가 실행한 SQL 문장 수를 경로별 예산과 비교한다.
+ * 넘으면 초과 지점을 로그로 남기고, fail-on-exceed 면 요청을 실패시킨다.
+ * 스트리밍처럼 응답이 이미 커밋됐으면 실패를 클라이언트에 알릴 수 없으므로 로그와 메트릭만 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !properties.isEnabled() || !properties.getEndpoints().containsKey(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        final String path = pathOf(request);
+        final StatementBudgetScope scope = StatementBudgetScope.open(path, properties.getEndpoints().get(path));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+
+        if (!scope.isExceeded()) {
+            return;
+        }
+        meterRegistry.counter("statement.budget.exceeded", "endpoint", path).increment();
+        // 커밋된 뒤에 던지면 잘린 200 이나 "response already committed" 오류만 남는다.
+        if (properties.isFailOnExceed() && !response.isCommitted()) {
+            throw new StatementBudgetExceededException(scope.describe());
+        }
+        log.warn("statement budget exceeded {}", scope.describe());
+    }
+
+    private static String pathOf(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
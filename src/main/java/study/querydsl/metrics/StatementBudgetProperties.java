@@ -0,0 +1,26 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * true 면 예산을 넘긴 요청을 실패시킨다. CI 에서 켠다.
+     */
+    private boolean failOnExceed = false;
+
+    /**
+     * 요청 경로별 SQL 문장 수 예산. 목록에 없는 경로는 검사하지 않는다.
+     */
+    private Map<String, Integer> endpoints = new LinkedHashMap<>();
+}
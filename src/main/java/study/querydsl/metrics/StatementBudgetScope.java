@@ -0,0 +1,101 @@
+package study.querydsl.metrics;
+
+/**
+ * 현재 스레드에서 실행되는 SQL 문장 수의 상한.
+ * 상한을 처음 넘긴 문장의 SQL 과 그 문장을 일으킨 애플리케이션 코드 위치를 기억한다.
+ * <pre>
+ * try (StatementBudgetScope scope = StatementBudgetScope.open("/v3/members", 2)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class StatementBudgetScope implements AutoCloseable {
+
+    private static final String APPLICATION_PACKAGE = "study.querydsl.";
+    private static final String METRICS_PACKAGE = "study.querydsl.metrics.";
+
+    private final String name;
+    private final int limit;
+    private final JdbcActivity activity;
+    private final StatementBudgetScope parent;
+    private final long start;
+
+    private String violationSite;
+    private String violationSql;
+
+    private StatementBudgetScope(final String name, final int limit, final JdbcActivity activity) {
+        this.name = name;
+        this.limit = limit;
+        this.activity = activity;
+        this.parent = activity.getBudget();
+        this.start = activity.getStatements();
+    }
+
+    public static StatementBudgetScope open(final String name, final int limit) {
+        final JdbcActivity activity = JdbcActivity.current();
+        final StatementBudgetScope scope = new StatementBudgetScope(name, limit, activity);
+        activity.setBudget(scope);
+        return scope;
+    }
+
+    void statementExecuted(final long total, final String sql) {
+        if (violationSite == null && total - start > limit) {
+            violationSite = callSite();
+            violationSql = sql;
+        }
+        if (parent != null) {
+            parent.statementExecuted(total, sql);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getStatements() {
+        return activity.getStatements() - start;
+    }
+
+    public boolean isExceeded() {
+        return getStatements() > limit;
+    }
+
+    public String getViolationSite() {
+        return violationSite;
+    }
+
+    public String getViolationSql() {
+        return violationSql;
+    }
+
+    public String describe() {
+        return "%s: SQL %d건 실행 (예산 %d건), 초과 지점 %s, SQL [%s]"
+                .formatted(name, getStatements(), limit, violationSite, violationSql);
+    }
+
+    @Override
+    public void close() {
+        activity.setBudget(parent);
+    }
+
+    /**
+     * 스택에서 가장 가까운 애플리케이션 코드. 프록시와 이 패키지 자신은 건너뛴다.
+     */
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> {
+                    final String className = frame.getClassName();
+                    return className.startsWith(APPLICATION_PACKAGE)
+                            && !className.startsWith(METRICS_PACKAGE)
+                            && !className.contains("$$")
+                            && !className.contains("$HibernateProxy");
+                })
+                .findFirst()
+                .map(frame -> frame.toStackTraceElement().toString())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,244 @@
+package study.querydsl.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.datasource.ConnectionPools;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 페이지의 content 쿼리는 호출 스레드에서, count 쿼리는 별도 스레드의 읽기 전용 트랜잭션(별도 커넥션)에서 동시에 실행한다.
+ * <p>
+ * 한쪽이 실패하면 다른 쪽에서 실행 중인 JDBC 문장을 {@link Session#cancelQuery()} 로 취소한다.
+ * 쓰기 트랜잭션 안에서 호출되면 count 가 아직 커밋되지 않은 변경을 봐야 하므로 순서대로 실행한다.
+ * 호출 스레드는 이미 커넥션을 하나 쥐고 있으므로, 커넥션 풀에 쉬는 커넥션이 없을 때도 순서대로 실행한다.
+ * 풀이 꽉 찬 상태에서 요청마다 두 번째 커넥션을 기다리면 서로를 기다리다 count 가 타임아웃되기 때문이다.
+ * 절약한 시간(content + count - 전체)은 search.page.concurrent.saved 로 남긴다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ConcurrentPageProperties.class)
+public class ConcurrentPageExecutor implements DisposableBean {
+
+    private final ConcurrentPageProperties properties;
+    private final TransactionTemplate countTransaction;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final List<HikariDataSource> pools;
+    private final Timer saved;
+    private final Timer wall;
+
+    public ConcurrentPageExecutor(final ConcurrentPageProperties properties,
+                                  final PlatformTransactionManager transactionManager,
+                                  final DataSource dataSource,
+                                  final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.pools = ConnectionPools.of(dataSource);
+
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setReadOnly(true);
+
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), threadFactory());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "search.page.count");
+
+        this.saved = Timer.builder("search.page.concurrent.saved")
+                .description("content 와 count 를 순서대로 실행했을 때보다 줄어든 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.wall = Timer.builder("search.page.concurrent.wall")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    public <T> Page<T> execute(final EntityManager em, final Pageable pageable,
+                               final Supplier<List<T>> contentQuery, final LongSupplier countQuery) {
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return sequential("transaction", pageable, contentQuery, countQuery);
+        }
+        if (!hasIdleConnection()) {
+            return sequential("pool", pageable, contentQuery, countQuery);
+        }
+
+        final long start = System.nanoTime();
+        final CountTask countTask = new CountTask(em, countQuery, em.unwrap(Session.class));
+        final Future<Long> count;
+        try {
+            count = executor.submit(countTask);
+        } catch (RejectedExecutionException e) {
+            return sequential("rejected", pageable, contentQuery, countQuery);
+        }
+
+        final List<T> content;
+        final long contentNanos;
+        try {
+            content = contentQuery.get();
+            contentNanos = System.nanoTime() - start;
+        } catch (RuntimeException e) {
+            countTask.cancel();
+            count.cancel(true);
+            // count 가 먼저 실패해서 content 를 취소한 경우라면 원래 원인을 던진다.
+            throw countTask.failure != null ? countTask.failure : e;
+        }
+
+        final long total = await(count, countTask);
+
+        final long elapsed = System.nanoTime() - start;
+        wall.record(elapsed, TimeUnit.NANOSECONDS);
+        saved.record(Math.max(0, contentNanos + countTask.nanos - elapsed), TimeUnit.NANOSECONDS);
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private long await(final Future<Long> count, final CountTask countTask) {
+        try {
+            return count.get(properties.getCountTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            countTask.cancel();
+            count.cancel(true);
+            throw new QueryTimeoutException("count query timed out after " + properties.getCountTimeout(), e);
+        } catch (InterruptedException e) {
+            countTask.cancel();
+            count.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for count query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> Page<T> sequential(final String reason, final Pageable pageable,
+                                   final Supplier<List<T>> contentQuery, final LongSupplier countQuery) {
+        meterRegistry.counter("search.page.concurrent.fallback", "reason", reason).increment();
+        return PageableExecutionUtils.getPage(contentQuery.get(), pageable, countQuery);
+    }
+
+    /**
+     * 쉬는 커넥션이 있거나 풀이 더 커질 수 있으면 여유가 있다고 본다.
+     * 라우팅이면 count 가 어느 풀로 갈지 미리 알 수 없으므로 어느 한 풀에라도 여유가 있으면 된다.
+     * Hikari 풀을 찾지 못했거나 아직 시작되지 않은 풀은 여유가 있다고 본다.
+     */
+    private boolean hasIdleConnection() {
+        if (pools.isEmpty()) {
+            return true;
+        }
+        for (HikariDataSource pool : pools) {
+            final HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean == null || mxBean.getIdleConnections() > 0
+                    || mxBean.getTotalConnections() < pool.getMaximumPoolSize()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static void cancelQuietly(final Session session) {
+        try {
+            session.cancelQuery();
+        } catch (RuntimeException e) {
+            // 이미 끝난 문장을 취소하려 하면 드라이버에 따라 예외가 난다.
+            log.debug("failed to cancel query", e);
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        final AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "page-count-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class CountTask implements Callable<Long> {
+
+        private final EntityManager em;
+        private final LongSupplier countQuery;
+        private final Session contentSession;
+
+        private volatile Session session;
+        private volatile boolean cancelled;
+        private volatile RuntimeException failure;
+        private volatile long nanos;
+
+        CountTask(final EntityManager em, final LongSupplier countQuery, final Session contentSession) {
+            this.em = em;
+            this.countQuery = countQuery;
+            this.contentSession = contentSession;
+        }
+
+        @Override
+        public Long call() {
+            final long start = System.nanoTime();
+            try {
+                return countTransaction.execute(status -> {
+                    // 공유 EntityManager 프록시는 이 스레드의 트랜잭션에 묶인 세션을 돌려준다.
+                    session = em.unwrap(Session.class);
+                    if (cancelled) {
+                        throw new IllegalStateException("count query cancelled");
+                    }
+                    return countQuery.getAsLong();
+                });
+            } catch (RuntimeException e) {
+                if (!cancelled) {
+                    failure = e;
+                    cancelQuietly(contentSession);
+                }
+                throw e;
+            } finally {
+                nanos = System.nanoTime() - start;
+                session = null;
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            final Session running = session;
+            if (running != null) {
+                cancelQuietly(running);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.concurrent-page")
+public class ConcurrentPageProperties {
+
+    /**
+     * count 쿼리를 돌리는 스레드 수. 스레드마다 커넥션을 하나씩 쓰므로 커넥션 풀보다 작게 둔다.
+     */
+    private int poolSize = 4;
+
+    /**
+     * 대기열이 차면 동시 실행을 포기하고 호출 스레드에서 순서대로 실행한다.
+     */
+    private int queueCapacity = 64;
+
+    private Duration countTimeout = Duration.ofSeconds(10);
+}
@@ -5,7 +5,9 @@ import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
@@ -13,6 +15,7 @@ import study.querydsl.entity.Member;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -55,6 +58,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(final MemberSearchCondition condition) {
 
         final BooleanBuilder builder = new BooleanBuilder();
@@ -91,7 +95,17 @@ public class MemberJpaRepository {
 
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(final MemberSearchCondition condition) {
+        return MemberSearchTemplates.of(condition).fetch(em, condition);
+    }
+
+    /**
+     * search 와 같은 조건이지만 결과를 한 번에 올리지 않고 JDBC 커서로 한 줄씩 읽는다.
+     * 반환된 Stream 은 트랜잭션 안에서 소비하고 닫아야 한다.
+     * MySQL 은 URL 에 useCursorFetch=true 가 있어야 fetchSize 가 적용된다.
+     */
+    public Stream<MemberTeamDto> searchStream(final MemberSearchCondition condition, final int fetchSize) {
 
         final BooleanBuilder builder = createSearchBooleanBuilder(condition);
         return queryFactory
@@ -105,10 +119,11 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                       builder
+                        builder
                 )
-                .fetch();
-
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
     }
 
     private BooleanBuilder createSearchBooleanBuilder(final MemberSearchCondition condition) {
@@ -2,7 +2,9 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
 
 import java.util.List;
@@ -14,4 +16,8 @@ public interface MemberRepositoryCustom {
 
     Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable);
 
+    Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable, final SearchPlan plan);
+
+    MemberSlice searchSlice(final MemberSearchCondition condition, final MemberCursor cursor, final int size);
+
 }
@@ -1,22 +1,40 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.index.MemberBitmapIndex;
+import study.querydsl.snapshot.MemberSnapshot;
+import study.querydsl.stats.MemberCountEstimator;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -26,13 +44,108 @@ import static study.querydsl.entity.QTeam.team;
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{
 
+    // BITMAP_INDEX 에서 어긋난 id 를 바로잡고 페이지를 다시 자르는 최대 횟수
+    private static final int BITMAP_INDEX_CORRECTIONS = 2;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    // @DataJpaTest 처럼 캐시 빈들이 없는 슬라이스에서도 리포지토리를 만들 수 있도록 선택적으로 주입받는다.
+    private final ObjectProvider<MemberCountCache> memberCountCache;
+    private final ObjectProvider<MemberSearchCache> memberSearchCache;
+    private final ObjectProvider<ConcurrentPageExecutor> concurrentPageExecutor;
+    private final ObjectProvider<MemberCountEstimator> memberCountEstimator;
+    private final ObjectProvider<MemberSnapshot> memberSnapshot;
+    private final ObjectProvider<MemberBitmapIndex> memberBitmapIndex;
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(final MemberSearchCondition condition) {
+        final MemberSnapshot snapshot = servingSnapshot();
+        if (snapshot != null) {
+            return snapshot.search(condition);
+        }
+        final MemberSearchCache cache = memberSearchCache.getIfAvailable();
+        return cache != null ? cache.get(condition, () -> fetchSearch(condition)) : fetchSearch(condition);
+    }
+
+    private List<MemberTeamDto> fetchSearch(final MemberSearchCondition condition) {
+        return MemberSearchTemplates.of(condition).fetch(em, condition);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageSimple(final MemberSearchCondition condition, final Pageable pageable) {
+        final MemberSnapshot snapshot = servingSnapshot();
+        if (snapshot != null) {
+            return snapshot.searchPage(condition, pageable);
+        }
+        final MemberSearchTemplates template = MemberSearchTemplates.of(condition);
+
+        final OptionalLong estimate = estimate(condition);
+        if (estimate.isPresent()) {
+            return new EstimatedPage<>(template.fetch(em, condition, pageable.getOffset(), pageable.getPageSize()), pageable, estimate.getAsLong());
+        }
+
+        final long total = template.count(em, condition);
+        final List<MemberTeamDto> content = total > 0
+                ? template.fetch(em, condition, pageable.getOffset(), pageable.getPageSize())
+                : List.of();
+
+        return new PageImpl<>(content, pageable, total);
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable) {
+        return searchPageComplex(condition, pageable, SearchPlan.OFFSET);
+    }
 
-        final BooleanBuilder builder = createSearchBooleanBuilder(condition);
-        return queryFactory
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable, final SearchPlan plan) {
+        // 스냅샷은 plan 과 상관없이 같은 결과를 낸다.
+        final MemberSnapshot snapshot = servingSnapshot();
+        if (snapshot != null) {
+            return snapshot.searchPage(condition, pageable);
+        }
+
+        if (plan == SearchPlan.BITMAP_INDEX) {
+            final MemberBitmapIndex index = memberBitmapIndex.getIfAvailable();
+            final Optional<RoaringBitmap> ids = index != null ? index.match(condition) : Optional.empty();
+            if (ids.isPresent()) {
+                return searchPageByBitmapIndex(index, condition, pageable, ids.get());
+            }
+        }
+
+        final OptionalLong estimate = estimate(condition);
+        final ConcurrentPageExecutor executor = concurrentPageExecutor.getIfAvailable();
+        if (plan == SearchPlan.CONCURRENT && executor != null && estimate.isEmpty()) {
+            return executor.execute(em, pageable,
+                    () -> MemberSearchTemplates.of(condition).fetch(em, condition, pageable.getOffset(), pageable.getPageSize()),
+                    () -> count(condition));
+        }
+
+        final List<MemberTeamDto> content = plan == SearchPlan.DEFERRED_JOIN
+                ? fetchContentDeferred(createSearchBooleanBuilder(condition), pageable)
+                : MemberSearchTemplates.of(condition).fetch(em, condition, pageable.getOffset(), pageable.getPageSize());
+
+        if (estimate.isPresent()) {
+            return new EstimatedPage<>(content, pageable, estimate.getAsLong());
+        }
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition));
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MemberSlice searchSlice(final MemberSearchCondition condition, final MemberCursor cursor, final int size) {
+        Assert.isTrue(size > 0, "size must be positive");
+
+        final BooleanBuilder builder = createSearchBooleanBuilder(condition)
+                .and(afterCursor(cursor));
+
+        final List<MemberTeamDto> fetched = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -45,45 +158,80 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{
                 .where(
                         builder
                 )
+                .orderBy(member.age.asc(), member.id.asc())
+                .limit(size + 1L)
                 .fetch();
 
+        final boolean hasNext = fetched.size() > size;
+        final List<MemberTeamDto> content = hasNext ? fetched.subList(0, size) : fetched;
+        final String nextCursor = hasNext ? MemberCursor.of(content.get(content.size() - 1)).encode() : null;
+
+        return MemberSlice.builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
     }
 
-    @Override
-    public Page<MemberTeamDto> searchPageSimple(final MemberSearchCondition condition, final Pageable pageable) {
-        final BooleanBuilder builder = createSearchBooleanBuilder(condition);
+    /**
+     * 인덱스는 이벤트가 없는 변경(벌크 연산, StatelessSession)을 다음 재구성 때까지 모르므로
+     * 채울 때 조건을 다시 걸어 지워졌거나 조건을 벗어난 member 를 거른다.
+     * 걸러진 id 가 있으면 인덱스를 바로잡고 다시 잘라서 페이지를 채운다.
+     * 페이지 밖의 어긋난 id 는 모르므로 전체 건수는 근사값으로 응답한다.
+     */
+    private Page<MemberTeamDto> searchPageByBitmapIndex(final MemberBitmapIndex index, final MemberSearchCondition condition,
+                                                        final Pageable pageable, final RoaringBitmap matched) {
+        final BooleanBuilder recheck = createSearchBooleanBuilder(condition);
 
-        final QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
+        RoaringBitmap ids = matched;
+        for (int attempt = 0; ; attempt++) {
+            final List<Long> page = MemberBitmapIndex.slice(ids, pageable.getOffset(), pageable.getPageSize());
+            final List<MemberTeamDto> content = fetchByIds(page, recheck);
+            if (content.size() == page.size() || attempt == BITMAP_INDEX_CORRECTIONS) {
+                return new EstimatedPage<>(content, pageable, ids.getLongCardinality());
+            }
+
+            final Set<Long> found = content.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toSet());
+            index.correct(em, page.stream().filter(id -> !found.contains(id)).toList());
+            final Optional<RoaringBitmap> corrected = index.match(condition);
+            if (corrected.isEmpty()) {
+                return new EstimatedPage<>(content, pageable, ids.getLongCardinality());
+            }
+            ids = corrected.get();
+        }
+    }
+
+    private List<MemberTeamDto> fetchContentDeferred(final BooleanBuilder builder, final Pageable pageable) {
+
+        // 1단계: 필터/정렬/limit 은 member.id 만으로 처리해서 인덱스만 타도록 한다.
+        // teamNameEq 는 member.team.name 경로를 쓰므로 명시적 leftJoin 이 필요 없다.
+        final List<Long> ids = queryFactory
+                .select(member.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         builder
                 )
+                .orderBy(member.id.asc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
-
-        final List<MemberTeamDto> content = results.getResults();
-        final long total = results.getTotal();
-
-        return new PageImpl<>(content, pageable, total);
+                .fetch();
 
+        // 2단계: 살아남은 id 만 조인해서 채운다.
+        return fetchByIds(ids, null);
     }
 
-    @Override
-    public Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable) {
-
+    /**
+     * id 들을 조인해서 채우고, 넘겨받은 순서를 그대로 복원한다.
+     * 1단계와 2단계 사이에 지워진 member 처럼 돌아오지 않은 id 는 건너뛴다.
+     *
+     * @param recheck null 이 아니면 이 조건을 함께 걸어서 더는 맞지 않는 id 도 건너뛴다.
+     */
+    private List<MemberTeamDto> fetchByIds(final List<Long> ids, final Predicate recheck) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
-        final BooleanBuilder builder = createSearchBooleanBuilder(condition);
-
-        final List<MemberTeamDto> content = queryFactory
+        final Map<Long, MemberTeamDto> hydrated = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -93,22 +241,34 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        builder
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .where(member.id.in(ids), recheck)
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(MemberTeamDto::getMemberId, Function.identity()));
 
-        final JPAQuery<Member> countQuery = queryFactory
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(
-                        builder
-                );
+        return ids.stream()
+                .map(hydrated::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private MemberSnapshot servingSnapshot() {
+        final MemberSnapshot snapshot = memberSnapshot.getIfAvailable();
+        return snapshot != null && snapshot.isServing() ? snapshot : null;
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+    /**
+     * 추정치가 충분히 크면 그 값을, 아니면 정확히 세야 하므로 빈 값을 돌려준다.
+     */
+    private OptionalLong estimate(final MemberSearchCondition condition) {
+        final MemberCountEstimator estimator = memberCountEstimator.getIfAvailable();
+        return estimator != null ? estimator.estimate(condition) : OptionalLong.empty();
+    }
 
+    private long count(final MemberSearchCondition condition) {
+        final MemberSearchTemplates template = MemberSearchTemplates.of(condition);
+        final MemberCountCache cache = memberCountCache.getIfAvailable();
+        return cache != null ? cache.get(condition, () -> template.count(em, condition)) : template.count(em, condition);
     }
 
     private BooleanBuilder createSearchBooleanBuilder(final MemberSearchCondition condition) {
@@ -123,6 +283,14 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{
 
     }
 
+    private BooleanExpression afterCursor(final MemberCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return member.age.gt(cursor.age())
+                .or(member.age.eq(cursor.age()).and(member.id.gt(cursor.memberId())));
+    }
+
     private BooleanExpression ageLoe(final Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
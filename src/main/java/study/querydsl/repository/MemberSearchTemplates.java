@@ -0,0 +1,257 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 조건은 ageGoe, ageLoe, teamName, username 각각의 유무로 2^4 = 16 가지 모양만 나온다.
+ * 모양마다 JPQL 을 클래스 로딩 시 한 번만 만들어 두고, 요청마다 파라미터 값만 바인딩한다.
+ * <p>
+ * 요청 경로에서 BooleanBuilder, QMemberTeamDto 생성과 JPQL 직렬화가 빠지고,
+ * 매번 같은 JPQL 문자열이 들어가므로 Hibernate 의 쿼리 플랜 캐시도 항상 적중한다.
+ * <p>
+ * 결과는 member.id 순서다. DEFERRED_JOIN, BITMAP_INDEX 도 같은 순서로 자르므로 plan 이 달라도 같은 페이지가 나온다.
+ */
+public final class MemberSearchTemplates {
+
+    private static final int AGE_GOE = 1;
+    private static final int AGE_LOE = 1 << 1;
+    private static final int TEAM_NAME = 1 << 2;
+    private static final int USERNAME = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+
+    private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+    );
+
+    private static final MemberSearchTemplates[] TEMPLATES = new MemberSearchTemplates[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            TEMPLATES[shape] = new MemberSearchTemplates(shape);
+        }
+    }
+
+    private final int shape;
+    private final String contentJpql;
+    private final List<Object> contentConstants;
+    private final String countJpql;
+    private final List<Object> countConstants;
+    private final String sql;
+
+    private MemberSearchTemplates(final int shape) {
+        this.shape = shape;
+
+        final BooleanBuilder predicate = createPredicate(shape);
+
+        final QueryMetadata content = new JPAQuery<>()
+                .select(PROJECTION)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicate)
+                .orderBy(member.id.asc())
+                .getMetadata();
+        final JPQLSerializer contentSerializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        contentSerializer.serialize(content, false, null);
+        this.contentJpql = contentSerializer.toString();
+        this.contentConstants = List.copyOf(contentSerializer.getConstants());
+
+        final QueryMetadata count = new JPAQuery<>()
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicate)
+                .getMetadata();
+        final JPQLSerializer countSerializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        countSerializer.serialize(count, true, null);
+        this.countJpql = countSerializer.toString();
+        this.countConstants = List.copyOf(countSerializer.getConstants());
+
+        this.sql = createSql(shape);
+    }
+
+    public static MemberSearchTemplates of(final MemberSearchCondition condition) {
+        return TEMPLATES[shapeOf(condition)];
+    }
+
+    /**
+     * 조건에 들어있는 술어 조합. 예: "ageGoe+teamName", 조건이 없으면 "none".
+     */
+    public static String describe(final MemberSearchCondition condition) {
+        final int shape = shapeOf(condition);
+        if (shape == 0) {
+            return "none";
+        }
+        final List<String> names = new ArrayList<>(4);
+        if ((shape & AGE_GOE) != 0) {
+            names.add("ageGoe");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            names.add("ageLoe");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            names.add("teamName");
+        }
+        if ((shape & USERNAME) != 0) {
+            names.add("username");
+        }
+        return String.join("+", names);
+    }
+
+    public List<MemberTeamDto> fetch(final EntityManager em, final MemberSearchCondition condition) {
+        return fetch(em, condition, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<MemberTeamDto> fetch(final EntityManager em, final MemberSearchCondition condition,
+                                     final Long offset, final Integer limit) {
+        final Query query = em.createQuery(contentJpql);
+        JPAUtil.setConstants(query, contentConstants, bind(condition));
+        if (offset != null) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        final List<Object[]> rows = query.getResultList();
+        final List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(PROJECTION.newInstance(row));
+        }
+        return result;
+    }
+
+    public long count(final EntityManager em, final MemberSearchCondition condition) {
+        final Query query = em.createQuery(countJpql);
+        JPAUtil.setConstants(query, countConstants, bind(condition));
+        return (Long) query.getSingleResult();
+    }
+
+    /**
+     * content JPQL 과 같은 행을 같은 컬럼 순서(memberId, username, age, teamId, teamName)로 돌려주는 SQL.
+     * DTO 를 거치지 않고 JDBC 결과를 바로 쓰는 경로에서 쓴다.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public Object[] sqlArgs(final MemberSearchCondition condition) {
+        final List<Object> args = new ArrayList<>(4);
+        if ((shape & AGE_GOE) != 0) {
+            args.add(condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            args.add(condition.getAgeLoe());
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            args.add(condition.getTeamName());
+        }
+        if ((shape & USERNAME) != 0) {
+            args.add(condition.getUsername());
+        }
+        return args.toArray();
+    }
+
+    private Map<ParamExpression<?>, Object> bind(final MemberSearchCondition condition) {
+        final Map<ParamExpression<?>, Object> params = new HashMap<>(8);
+        if ((shape & AGE_GOE) != 0) {
+            params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            params.put(TEAM_NAME_PARAM, condition.getTeamName());
+        }
+        if ((shape & USERNAME) != 0) {
+            params.put(USERNAME_PARAM, condition.getUsername());
+        }
+        return params;
+    }
+
+    private static int shapeOf(final MemberSearchCondition condition) {
+        int shape = 0;
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        return shape;
+    }
+
+    private static String createSql(final int shape) {
+        final List<String> predicates = new ArrayList<>(4);
+        if ((shape & AGE_GOE) != 0) {
+            predicates.add("m.age >= ?");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            predicates.add("m.age <= ?");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            predicates.add("t.name = ?");
+        }
+        if ((shape & USERNAME) != 0) {
+            predicates.add("m.username = ?");
+        }
+        return "select m.member_id, m.username, m.age, t.id, t.name from member m left join team t on t.id = m.team_id"
+                + (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates))
+                + " order by m.member_id";
+    }
+
+    /**
+     * createSearchBooleanBuilder 와 같은 술어를 값 대신 파라미터로 만든다.
+     */
+    private static BooleanBuilder createPredicate(final int shape) {
+        final BooleanBuilder builder = new BooleanBuilder();
+        if ((shape & AGE_GOE) != 0) {
+            builder.and(member.age.goe(AGE_GOE_PARAM));
+        }
+        if ((shape & AGE_LOE) != 0) {
+            builder.and(member.age.loe(AGE_LOE_PARAM));
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            builder.and(member.team.name.eq(TEAM_NAME_PARAM));
+        }
+        if ((shape & USERNAME) != 0) {
+            builder.and(member.username.eq(USERNAME_PARAM));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository;
+
+/**
+ * searchPageComplex 의 content 조회 방식.
+ */
+public enum SearchPlan {
+
+    /**
+     * 조인과 프로젝션을 그대로 둔 채 offset/limit 으로 자른다.
+     */
+    OFFSET,
+
+    /**
+     * member.id 만 먼저 offset/limit 으로 구한 뒤, 해당 id 만 조인해서 채운다.
+     */
+    DEFERRED_JOIN,
+
+    /**
+     * OFFSET 과 같은 content 쿼리를 돌리는 동안 count 쿼리를 다른 커넥션에서 동시에 실행한다.
+     * 첫 페이지가 pageSize 보다 작아도 count 는 이미 실행 중이므로 생략되지 않는다.
+     */
+    CONCURRENT,
+
+    /**
+     * 나이/팀 조건을 메모리의 비트맵 인덱스로 풀어 페이지에 해당하는 id 만 조인한다.
+     * 인덱스는 이벤트가 없는 변경(벌크 연산, StatelessSession)을 다음 재구성 때까지 모르므로,
+     * 조인할 때 조건을 다시 걸어 맞지 않는 member 는 인덱스에서 바로잡은 뒤 다시 잘라 페이지를 채운다.
+     * 전체 건수는 비트맵 크기이므로 그동안은 근사값이고, 응답에 "approximate": true 로 나간다.
+     * 인덱스가 꺼져 있거나 username 조건이 있으면 OFFSET 으로 처리한다.
+     */
+    BITMAP_INDEX
+}
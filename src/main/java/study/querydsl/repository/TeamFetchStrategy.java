@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+/**
+ * 팀 명단 조회 시 Team.members 컬렉션을 읽어오는 방식.
+ */
+public enum TeamFetchStrategy {
+
+    /**
+     * team 과 members 를 distinct fetch join 한다.
+     * 컬렉션 fetch join 은 SQL 로 페이징할 수 없어 Hibernate 가 전체를 읽은 뒤 메모리에서 자른다.
+     */
+    FETCH_JOIN,
+
+    /**
+     * team 페이지를 먼저 읽고, 지연 로딩되는 members 를 default_batch_fetch_size 단위 IN 쿼리로 채운다.
+     */
+    BATCH,
+
+    /**
+     * team 페이지를 프로젝션으로 읽고, 그 team id 들의 member 를 한 번의 IN 쿼리로 읽어 묶는다.
+     */
+    TWO_QUERY
+}
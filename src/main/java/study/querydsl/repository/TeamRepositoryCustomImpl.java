@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.TeamRosterDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@RequiredArgsConstructor
+public class TeamRepositoryCustomImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TeamRosterDto> findRoster(final Pageable pageable, final TeamFetchStrategy strategy) {
+
+        final List<TeamRosterDto> content = switch (strategy) {
+            case FETCH_JOIN -> fetchJoin(pageable);
+            case BATCH -> batch(pageable);
+            case TWO_QUERY -> twoQuery(pageable);
+        };
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryFactory
+                .select(team.count())
+                .from(team)
+                .fetchOne());
+    }
+
+    private List<TeamRosterDto> fetchJoin(final Pageable pageable) {
+        final List<Team> teams = queryFactory
+                .selectFrom(team).distinct()
+                .leftJoin(team.members, member).fetchJoin()
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return teams.stream().map(TeamRepositoryCustomImpl::toRoster).toList();
+    }
+
+    private List<TeamRosterDto> batch(final Pageable pageable) {
+        final List<Team> teams = queryFactory
+                .selectFrom(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return teams.stream().map(TeamRepositoryCustomImpl::toRoster).toList();
+    }
+
+    private List<TeamRosterDto> twoQuery(final Pageable pageable) {
+        final List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        if (teams.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<Long, List<MemberDto>> membersByTeam = new HashMap<>(teams.size() * 2);
+        teams.forEach(tuple -> membersByTeam.put(tuple.get(team.id), new ArrayList<>()));
+
+        queryFactory
+                .select(member.team.id, new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.team.id.in(membersByTeam.keySet()))
+                .orderBy(member.team.id.asc(), member.id.asc())
+                .fetch()
+                .forEach(tuple -> membersByTeam.get(tuple.get(member.team.id)).add(tuple.get(1, MemberDto.class)));
+
+        return teams.stream()
+                .map(tuple -> new TeamRosterDto(tuple.get(team.id), tuple.get(team.name), membersByTeam.get(tuple.get(team.id))))
+                .toList();
+    }
+
+    private static TeamRosterDto toRoster(final Team team) {
+        final List<MemberDto> members = team.getMembers() == null
+                ? List.of()
+                : team.getMembers().stream()
+                        .sorted(Comparator.comparing(Member::getId))
+                        .map(m -> new MemberDto(m.getUsername(), m.getAge()))
+                        .toList();
+        return new TeamRosterDto(team.getId(), team.getName(), members);
+    }
+}
@@ -0,0 +1,155 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.TeamStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * team_stats 를 JDBC 로 읽고 쓴다.
+ * 커밋 직전 트랜잭션 동기화 안에서 불리므로 JPA 쿼리(자동 flush)를 쓰지 않고,
+ * 트랜잭션에 묶인 같은 커넥션으로 바로 실행한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TeamStatsRepository {
+
+    private static final Comparator<TeamStats.Key> KEY_ORDER =
+            Comparator.comparing(TeamStats.Key::getTeamId).thenComparingInt(TeamStats.Key::getAge);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * (team, age) 별 증감을 한 번에 반영한다. 행 잠금 순서가 트랜잭션마다 같도록 키 순서대로 갱신하고,
+     * 아직 행이 없는 키만 모아서 insert 한다.
+     */
+    public void addAll(final Map<TeamStats.Key, Long> deltas) {
+        final List<Map.Entry<TeamStats.Key, Long>> changes = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        final int[] updated = jdbcTemplate.batchUpdate(
+                "update team_stats set member_count = member_count + ? where team_id = ? and age = ?",
+                changes.stream()
+                        .map(entry -> new Object[]{entry.getValue(), entry.getKey().getTeamId(), entry.getKey().getAge()})
+                        .toList());
+
+        final List<Map.Entry<TeamStats.Key, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(changes.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("insert into team_stats (team_id, age, member_count) values (?, ?, ?)",
+                    missing.stream()
+                            .map(entry -> new Object[]{entry.getKey().getTeamId(), entry.getKey().getAge(), entry.getValue()})
+                            .toList());
+        } catch (DuplicateKeyException e) {
+            // 다른 트랜잭션이 먼저 행을 만들었다. 배치 중 어디까지 들어갔는지 알 수 없으므로 한 행씩 다시 넣는다.
+            missing.forEach(entry -> add(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void add(final TeamStats.Key key, final long delta) {
+        if (jdbcTemplate.update("update team_stats set member_count = member_count + ? where team_id = ? and age = ?",
+                delta, key.getTeamId(), key.getAge()) > 0) {
+            return;
+        }
+        jdbcTemplate.update("insert into team_stats (team_id, age, member_count) values (?, ?, ?)",
+                key.getTeamId(), key.getAge(), delta);
+    }
+
+    /**
+     * member 를 다시 센 값으로 한 행을 고친다. 세는 것과 쓰는 것을 한 문장으로 하므로,
+     * 앞서 비교에 쓴 값이 그 사이에 커밋된 증감 때문에 낡았더라도 덮어쓰지 않는다.
+     */
+    public void repair(final long teamId, final int age) {
+        if (recount(teamId, age) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("""
+                            insert into team_stats (team_id, age, member_count)
+                            select ?, ?, count(*) from member where team_id = ? and age = ?""",
+                    teamId, age, teamId, age);
+        } catch (DuplicateKeyException e) {
+            // 다른 트랜잭션이 먼저 행을 만들었다.
+            recount(teamId, age);
+        }
+    }
+
+    private int recount(final long teamId, final int age) {
+        return jdbcTemplate.update("""
+                        update team_stats
+                        set member_count = (select count(*) from member m where m.team_id = ? and m.age = ?)
+                        where team_id = ? and age = ?""",
+                teamId, age, teamId, age);
+    }
+
+    public void deleteTeam(final long teamId) {
+        jdbcTemplate.update("delete from team_stats where team_id = ?", teamId);
+    }
+
+    /**
+     * 팀마다 나이 종류만큼의 행만 읽는다. member 가 없는 팀도 0 으로 나온다.
+     */
+    public List<TeamStatsDto> findAll() {
+        return jdbcTemplate.query("""
+                        select t.id, t.name,
+                               coalesce(sum(s.member_count), 0) as member_count,
+                               coalesce(sum(s.age * s.member_count), 0) as age_sum,
+                               min(s.age) as age_min,
+                               max(s.age) as age_max
+                        from team t
+                        left join team_stats s on s.team_id = t.id and s.member_count > 0
+                        group by t.id, t.name
+                        order by t.id""",
+                (rs, rowNum) -> {
+                    final long memberCount = rs.getLong("member_count");
+                    final long ageSum = rs.getLong("age_sum");
+                    return new TeamStatsDto(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            memberCount,
+                            ageSum,
+                            memberCount > 0 ? (double) ageSum / memberCount : null,
+                            rs.getObject("age_min", Integer.class),
+                            rs.getObject("age_max", Integer.class));
+                });
+    }
+
+    public Map<TeamStats.Key, Long> findCounts() {
+        return toMap("select team_id, age, member_count from team_stats where member_count <> 0");
+    }
+
+    /**
+     * member 테이블을 전부 읽어서 다시 센 값.
+     */
+    public Map<TeamStats.Key, Long> recomputeCounts() {
+        return toMap("select team_id, age, count(*) from member where team_id is not null group by team_id, age");
+    }
+
+    private Map<TeamStats.Key, Long> toMap(final String sql) {
+        final Map<TeamStats.Key, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(new TeamStats.Key(rs.getLong(1), rs.getInt(2)), rs.getLong(3));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.bulk")
+public class MemberBulkProperties {
+
+    /**
+     * 한 트랜잭션에서 바꾸는 최대 행 수.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * 청크 사이에 쉬는 시간. 다른 트랜잭션이 락을 잡을 틈을 준다.
+     */
+    private Duration throttle = Duration.ofMillis(10);
+}
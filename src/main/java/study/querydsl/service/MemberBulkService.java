@@ -0,0 +1,215 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 벌크 update/delete 를 member.id 구간 단위로 나눠 청크마다 짧은 트랜잭션으로 커밋한다.
+ * <ul>
+ *     <li>청크는 조건에 맞는 id 를 id 순으로 chunkSize 개씩 잘라 정한다. 바꾼 값이 다시 조건에 걸려도 같은 행을 두 번 처리하지 않는다.</li>
+ *     <li>청크가 끝날 때마다 바뀐 Member 를 2차 캐시에서, 호출한 쪽 트랜잭션이 있으면 그 영속성 컨텍스트에서도 내린다.
+ *     그래서 호출한 쪽이 em.flush(); em.clear() 를 잊어도 오래된 엔티티를 보지 않는다.
+ *     내리기 전에 버려지지 않도록 호출한 쪽의 아직 flush 되지 않은 변경은 첫 청크 전에 flush 한다.</li>
+ *     <li>벌크 연산은 엔티티 이벤트를 내지 않으므로 청크가 끝날 때마다 count/search 캐시를 비운다.
+ *     스냅샷, 비트맵 인덱스 등 나머지 구조는 각자의 주기적인 재구축으로 맞춰진다.</li>
+ * </ul>
+ * 호출한 쪽 트랜잭션이 같은 행에 락을 잡고 있으면(위의 flush 포함) 청크 트랜잭션이 기다리다 실패하므로, 트랜잭션 밖에서 부르는 것이 좋다.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(MemberBulkProperties.class)
+public class MemberBulkService {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate chunkTransaction;
+    private final MemberBulkProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<MemberCountCache> memberCountCache;
+    private final ObjectProvider<MemberSearchCache> memberSearchCache;
+
+    public MemberBulkService(final JPAQueryFactory queryFactory, final EntityManager em, final EntityManagerFactory emf,
+                             final PlatformTransactionManager transactionManager, final MemberBulkProperties properties,
+                             final MeterRegistry meterRegistry, final ObjectProvider<MemberCountCache> memberCountCache,
+                             final ObjectProvider<MemberSearchCache> memberSearchCache) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.emf = emf;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.memberCountCache = memberCountCache;
+        this.memberSearchCache = memberSearchCache;
+    }
+
+    /**
+     * 예: {@code update(member.age.lt(20), clause -> clause.set(member.age, member.age.add(1)))}
+     */
+    public Progress update(final Predicate where, final Consumer<JPAUpdateClause> assignments) {
+        return update(where, assignments, progress -> {
+        });
+    }
+
+    public Progress update(final Predicate where, final Consumer<JPAUpdateClause> assignments,
+                           final Consumer<Progress> listener) {
+        return run("update", where, listener, (first, last) -> {
+            final JPAUpdateClause clause = queryFactory.update(member);
+            assignments.accept(clause);
+            return clause.where(where, member.id.between(first, last)).execute();
+        });
+    }
+
+    public Progress delete(final Predicate where) {
+        return delete(where, progress -> {
+        });
+    }
+
+    public Progress delete(final Predicate where, final Consumer<Progress> listener) {
+        return run("delete", where, listener,
+                (first, last) -> queryFactory.delete(member).where(where, member.id.between(first, last)).execute());
+    }
+
+    private Progress run(final String operation, final Predicate where, final Consumer<Progress> listener,
+                         final ChunkStatement statement) {
+        final Counter rowsCounter = meterRegistry.counter("member.bulk.rows", "operation", operation);
+        final Timer chunkTimer = meterRegistry.timer("member.bulk.chunk", "operation", operation);
+        final long start = System.nanoTime();
+
+        flushCaller();
+
+        Progress progress = new Progress(0, 0, Duration.ZERO);
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            final long after = lastId;
+            final long chunkStart = System.nanoTime();
+            final Chunk chunk = chunkTransaction.execute(status -> {
+                final List<Long> ids = queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(where, member.id.gt(after))
+                        .orderBy(member.id.asc())
+                        .limit(properties.getChunkSize())
+                        .fetch();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                final long rows = statement.execute(ids.get(0), ids.get(ids.size() - 1));
+                return new Chunk(ids, rows);
+            });
+            if (chunk == null) {
+                break;
+            }
+            chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+
+            evict(chunk.ids());
+            memberCountCache.ifAvailable(MemberCountCache::invalidateAll);
+            memberSearchCache.ifAvailable(MemberSearchCache::invalidateAll);
+            rowsCounter.increment(chunk.rows());
+            lastId = chunk.ids().get(chunk.ids().size() - 1);
+            progress = new Progress(progress.chunks() + 1, progress.rows() + chunk.rows(),
+                    Duration.ofNanos(System.nanoTime() - start));
+            listener.accept(progress);
+            log.debug("member bulk {} {}", operation, progress);
+
+            if (chunk.ids().size() < properties.getChunkSize()) {
+                break;
+            }
+            throttle();
+        }
+
+        log.info("member bulk {} done: {}", operation, progress);
+        return progress;
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션의 영속성 컨텍스트에서 Member 를 내리면 flush 되지 않은 변경도 같이 버려지므로 먼저 flush 한다.
+     */
+    private void flushCaller() {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && em.isJoinedToTransaction()) {
+            em.flush();
+        }
+    }
+
+    /**
+     * 2차 캐시와, 호출한 쪽 트랜잭션의 영속성 컨텍스트에 남은 Member 를 내린다.
+     */
+    private void evict(final List<Long> ids) {
+        ids.forEach(id -> emf.getCache().evict(Member.class, id));
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+        final EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        for (Long id : ids) {
+            final Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                session.evict(managed);
+            }
+        }
+    }
+
+    private void throttle() {
+        if (properties.getThrottle().isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getThrottle().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk operation interrupted", e);
+        }
+    }
+
+    /**
+     * 지금까지 커밋된 청크 수와 바뀐 행 수.
+     */
+    public record Progress(long chunks, long rows, Duration elapsed) {
+
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? 0 : rows * 1_000_000_000d / elapsed.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d chunks, %d rows in %d ms (%.0f rows/s)", chunks, rows, elapsed.toMillis(), rowsPerSecond());
+        }
+    }
+
+    private record Chunk(List<Long> ids, long rows) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkStatement {
+
+        long execute(long first, long last);
+    }
+}
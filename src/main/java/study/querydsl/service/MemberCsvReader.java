@@ -0,0 +1,112 @@
+package study.querydsl.service;
+
+import study.querydsl.dto.MemberIngestRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * 첫 줄이 헤더(username, age, teamName 순서 무관)인 CSV 를 한 줄씩 읽는다.
+ * 큰따옴표로 감싼 필드와 "" 이스케이프를 지원하고, 필드 안의 줄바꿈은 지원하지 않는다.
+ */
+class MemberCsvReader implements Iterator<MemberIngestRow> {
+
+    private final BufferedReader reader;
+    private final int usernameColumn;
+    private final int ageColumn;
+    private final int teamNameColumn;
+    private String next;
+
+    MemberCsvReader(final BufferedReader reader) throws IOException {
+        this.reader = reader;
+        final String header = reader.readLine();
+        if (header == null) {
+            usernameColumn = ageColumn = teamNameColumn = -1;
+            return;
+        }
+        final List<String> columns = split(header).stream()
+                .map(column -> column.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        usernameColumn = columns.indexOf("username");
+        ageColumn = columns.indexOf("age");
+        teamNameColumn = columns.indexOf("teamname");
+        if (usernameColumn < 0 || ageColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain username and age: " + header);
+        }
+        next = readDataLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public MemberIngestRow next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        final List<String> fields = split(next);
+        next = readDataLine();
+        return new MemberIngestRow(field(fields, usernameColumn), parseAge(field(fields, ageColumn)),
+                field(fields, teamNameColumn));
+    }
+
+    private String readDataLine() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String field(final List<String> fields, final int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static Integer parseAge(final String value) {
+        try {
+            return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static List<String> split(final String line) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.export")
+public class MemberExportProperties {
+
+    private int fetchSize = 1_000;
+    private int flushEvery = 1_000;
+}
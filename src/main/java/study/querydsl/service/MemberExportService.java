@@ -0,0 +1,63 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 NDJSON 으로 내보낸다. DTO 프로젝션으로 읽기 때문에 영속성 컨텍스트에 엔티티가 쌓이지 않고,
+ * 한 줄씩 바로 출력 스트림에 쓰므로 결과 크기와 상관없이 힙 사용량이 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(MemberExportProperties.class)
+public class MemberExportService {
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final MemberExportProperties properties;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(final MemberSearchCondition condition, final OutputStream out) throws IOException {
+
+        // 행마다 flush 하지 않고 flushEvery 행마다 한 번만 한다.
+        final ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<MemberTeamDto> stream = memberJpaRepository.searchStream(condition, properties.getFetchSize())) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 기본 구분자는 두 번째 값부터 앞에 공백을 붙이므로, 줄 구분은 직접 쓰는 개행만 쓴다.
+            generator.setRootValueSeparator(null);
+
+            final Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw(LINE_SEPARATOR);
+
+                if (++rows % properties.getFlushEvery() == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.ingest")
+public class MemberIngestProperties {
+
+    /**
+     * 한 트랜잭션에서 넣는 행 수. 배치가 끝나면 flush 하고 영속성 컨텍스트를 비운다.
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * 응답에 담는 배치 오류 수와 배치마다 담는 메시지 수의 상한.
+     */
+    private int maxErrors = 100;
+    private int maxMessagesPerBatch = 5;
+}
@@ -0,0 +1,222 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberIngestResult;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 스트리밍으로 받은 member 를 batchSize 개씩 트랜잭션 하나로 넣는다.
+ * <ul>
+ *     <li>배치가 끝날 때 flush 하고 영속성 컨텍스트를 비우므로 배치 크기 이상 커지지 않고,
+ *     insert 는 hibernate.jdbc.batch_size 단위로 JDBC 배치로 나간다.</li>
+ *     <li>StatelessSession 대신 일반 세션을 쓰므로 엔티티 이벤트가 나가고, 이벤트로 유지되는 캐시/통계가 그대로 맞는다.</li>
+ *     <li>팀은 배치에 나온 이름들을 한 번에 조회한다. 같은 이름의 팀이 여럿이면 id 가 가장 작은 팀에 넣는다.</li>
+ *     <li>잘못된 행은 건너뛰고, DB 오류가 난 배치는 롤백한 뒤 다음 배치를 계속한다. 둘 다 배치별 오류로 돌려준다.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(MemberIngestProperties.class)
+public class MemberIngestService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate batchTransaction;
+    private final MemberIngestProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public MemberIngestService(final EntityManager em, final JPAQueryFactory queryFactory, final ObjectMapper objectMapper,
+                               final PlatformTransactionManager transactionManager, final MemberIngestProperties properties,
+                               final MeterRegistry meterRegistry) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.objectMapper = objectMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * JSON 배열이나 줄마다 객체 하나인 NDJSON 을 받는다.
+     */
+    public MemberIngestResult ingestJson(final InputStream in) throws IOException {
+        try (MappingIterator<MemberIngestRow> rows = objectMapper.readerFor(MemberIngestRow.class).readValues(in)) {
+            return ingest(rows);
+        }
+    }
+
+    public MemberIngestResult ingestCsv(final InputStream in) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return ingest(new MemberCsvReader(reader));
+    }
+
+    private MemberIngestResult ingest(final Iterator<MemberIngestRow> rows) {
+        final long start = System.nanoTime();
+        final List<MemberIngestResult.BatchError> errors = new ArrayList<>();
+        final List<MemberIngestRow> batch = new ArrayList<>(properties.getBatchSize());
+
+        long received = 0;
+        long inserted = 0;
+        int batches = 0;
+        boolean completed = true;
+
+        while (true) {
+            boolean end;
+            try {
+                end = !rows.hasNext();
+                if (!end) {
+                    batch.add(rows.next());
+                    received++;
+                }
+            } catch (RuntimeException e) {
+                // 본문이 깨지면 그 뒤는 어디서 다시 읽어야 할지 알 수 없으므로 멈춘다.
+                addError(errors, new MemberIngestResult.BatchError(batches + 1, received + 1, received + 1, 0,
+                        List.of("본문을 읽을 수 없습니다: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage())));
+                completed = false;
+                end = true;
+            }
+
+            if (batch.size() == properties.getBatchSize() || end && !batch.isEmpty()) {
+                batches++;
+                inserted += writeBatch(batches, received - batch.size() + 1, batch, errors);
+                batch.clear();
+            }
+            if (end) {
+                break;
+            }
+        }
+
+        final long elapsedNanos = System.nanoTime() - start;
+        final long failed = received - inserted;
+        meterRegistry.counter("member.ingest.rows", "outcome", "inserted").increment(inserted);
+        meterRegistry.counter("member.ingest.rows", "outcome", "failed").increment(failed);
+
+        final MemberIngestResult result = MemberIngestResult.builder()
+                .received(received)
+                .inserted(inserted)
+                .failed(failed)
+                .batches(batches)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(elapsedNanos == 0 ? 0 : inserted * 1_000_000_000d / elapsedNanos)
+                .completed(completed)
+                .errors(errors)
+                .build();
+        log.info("member ingest: {} inserted, {} failed in {} ms ({} rows/s)",
+                inserted, failed, result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * @return 넣은 행 수
+     */
+    private long writeBatch(final int number, final long firstRow, final List<MemberIngestRow> rows,
+                            final List<MemberIngestResult.BatchError> errors) {
+        final List<String> messages = new ArrayList<>();
+        final long lastRow = firstRow + rows.size() - 1;
+        try {
+            final long inserted = batchTransaction.execute(status -> {
+                final Map<String, Team> teams = findTeams(rows);
+                long count = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    final MemberIngestRow row = rows.get(i);
+                    final String invalid = validate(row, teams);
+                    if (invalid != null) {
+                        addMessage(messages, (firstRow + i) + "번째 행: " + invalid);
+                        continue;
+                    }
+                    em.persist(Member.builder()
+                            .username(row.getUsername())
+                            .age(row.getAge())
+                            .team(hasText(row.getTeamName()) ? teams.get(row.getTeamName()) : null)
+                            .build());
+                    count++;
+                }
+                em.flush();
+                // open-in-view 로 요청에 묶인 EntityManager 는 커밋해도 비워지지 않으므로 직접 비운다.
+                em.clear();
+                return count;
+            });
+            if (!messages.isEmpty()) {
+                addError(errors, new MemberIngestResult.BatchError(number, firstRow, lastRow, rows.size() - inserted, messages));
+            }
+            return inserted;
+        } catch (RuntimeException e) {
+            log.warn("member ingest batch {} (rows {}-{}) rolled back", number, firstRow, lastRow, e);
+            addMessage(messages, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            addError(errors, new MemberIngestResult.BatchError(number, firstRow, lastRow, rows.size(), messages));
+            return 0;
+        }
+    }
+
+    private Map<String, Team> findTeams(final List<MemberIngestRow> rows) {
+        final Set<String> names = new LinkedHashSet<>();
+        for (MemberIngestRow row : rows) {
+            if (hasText(row.getTeamName())) {
+                names.add(row.getTeamName());
+            }
+        }
+        final Map<String, Team> teams = new HashMap<>();
+        if (!names.isEmpty()) {
+            for (Team found : queryFactory.selectFrom(team).where(team.name.in(names)).orderBy(team.id.asc()).fetch()) {
+                teams.putIfAbsent(found.getName(), found);
+            }
+        }
+        return teams;
+    }
+
+    private static String validate(final MemberIngestRow row, final Map<String, Team> teams) {
+        if (!hasText(row.getUsername())) {
+            return "username 이 없습니다.";
+        }
+        if (row.getAge() == null || row.getAge() < 0) {
+            return "age 가 없거나 올바르지 않습니다.";
+        }
+        if (hasText(row.getTeamName()) && !teams.containsKey(row.getTeamName())) {
+            return "없는 팀입니다: " + row.getTeamName();
+        }
+        return null;
+    }
+
+    private void addMessage(final List<String> messages, final String message) {
+        if (messages.size() < properties.getMaxMessagesPerBatch()) {
+            messages.add(message);
+        }
+    }
+
+    private void addError(final List<MemberIngestResult.BatchError> errors, final MemberIngestResult.BatchError error) {
+        if (errors.size() < properties.getMaxErrors()) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchTemplates;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * search 결과를 MemberTeamDto 없이 JDBC 결과에서 바로 JSON 배열로 쓴다.
+ * 필드 이름은 미리 인코딩해 두고 MemberTeamDto 의 필드 순서를 그대로 따르므로, Jackson 이 DTO 리스트를 쓴 것과 바이트 단위로 같다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberJsonWriter {
+
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long write(final MemberSearchCondition condition, final OutputStream out) throws IOException {
+        final MemberSearchTemplates template = MemberSearchTemplates.of(condition);
+        final long[] rows = {0};
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            jdbcTemplate.query(template.getSql(), rs -> {
+                try {
+                    writeRow(generator, rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, template.sqlArgs(condition));
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private static void writeRow(final JsonGenerator generator, final ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+
+        generator.writeFieldName(MEMBER_ID);
+        final long memberId = rs.getLong(1);
+        if (rs.wasNull()) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(memberId);
+        }
+
+        generator.writeFieldName(USERNAME);
+        generator.writeString(rs.getString(2));
+
+        generator.writeFieldName(AGE);
+        generator.writeNumber(rs.getInt(3));
+
+        generator.writeFieldName(TEAM_ID);
+        final long teamId = rs.getLong(4);
+        if (rs.wasNull()) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(teamId);
+        }
+
+        generator.writeFieldName(TEAM_NAME);
+        generator.writeString(rs.getString(5));
+
+        generator.writeEndObject();
+    }
+}
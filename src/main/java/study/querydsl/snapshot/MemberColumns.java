@@ -0,0 +1,326 @@
+package study.querydsl.snapshot;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * (memberId, username, age, teamId, teamName) 을 열마다 원시 배열 하나로 담는다.
+ * <ul>
+ *     <li>행은 memberId 순으로 정렬되어 있어서 id 로 위치를 찾을 때 이진 탐색을 쓴다.</li>
+ *     <li>username 은 사전의 코드로, 팀은 팀 슬롯 번호로 담는다. 팀 슬롯이 (teamId, teamName) 을 들고 있다.</li>
+ *     <li>지운 행은 username 코드를 DELETED 로 바꿔 두고, 일정 비율이 넘으면 배열을 다시 만든다.</li>
+ * </ul>
+ * 동기화하지 않으므로 호출하는 쪽에서 락을 잡는다.
+ */
+final class MemberColumns {
+
+    static final int DELETED = -1;
+    static final int NO_TEAM = -1;
+
+    private static final int ANY_USERNAME = -1;
+    // HashMap 항목 하나: Node 32 + Integer 16 + 테이블 칸(부하율 감안) 8
+    private static final long ENTRY_BYTES = 32 + 16 + 8;
+
+    private long[] ids;
+    private int[] ages;
+    private int[] usernames;
+    private int[] teams;
+    private int size;
+    private int deleted;
+
+    private final Map<String, Integer> usernameCodes = new HashMap<>();
+    private final List<String> usernameValues = new ArrayList<>();
+    // 사전은 지운 행이 있어도 줄지 않으므로 넣을 때마다 더해 둔다.
+    private long usernameBytes;
+
+    private final Map<Long, Integer> teamSlots = new HashMap<>();
+    private long[] teamIds = new long[16];
+    private String[] teamNames = new String[16];
+    private int teamCount;
+
+    MemberColumns(final int capacity) {
+        final int initial = Math.max(capacity, 16);
+        ids = new long[initial];
+        ages = new int[initial];
+        usernames = new int[initial];
+        teams = new int[initial];
+    }
+
+    int size() {
+        return size - deleted;
+    }
+
+    int rows() {
+        return size;
+    }
+
+    void putTeam(final long teamId, final String name) {
+        final int slot = teamSlot(teamId);
+        teamNames[slot] = name;
+    }
+
+    boolean hasTeamName(final long teamId) {
+        final Integer slot = teamSlots.get(teamId);
+        return slot != null && teamNames[slot] != null;
+    }
+
+    /**
+     * 없는 id 면 넣고, 있으면(지운 행 포함) 값을 덮어쓴다. 같은 변경을 두 번 반영해도 결과가 같다.
+     */
+    void upsert(final long id, final String username, final int age, final Long teamId) {
+        int position = position(id);
+        if (position < 0) {
+            position = -position - 1;
+            insertAt(position, id);
+        } else if (usernames[position] == DELETED) {
+            deleted--;
+        }
+        ages[position] = age;
+        usernames[position] = usernameCode(username);
+        teams[position] = teamId == null ? NO_TEAM : teamSlot(teamId);
+    }
+
+    void delete(final long id) {
+        final int position = position(id);
+        if (position < 0 || usernames[position] == DELETED) {
+            return;
+        }
+        usernames[position] = DELETED;
+        deleted++;
+        if (deleted > 1024 && deleted > size / 4) {
+            compact();
+        }
+    }
+
+    Filter filter(final MemberSearchCondition condition) {
+        int username = ANY_USERNAME;
+        if (hasText(condition.getUsername())) {
+            final Integer code = usernameCodes.get(condition.getUsername());
+            if (code == null) {
+                return null;
+            }
+            username = code;
+        }
+
+        // 인덱스 0 은 팀이 없는 member(NO_TEAM + 1) 자리다.
+        final boolean[] teamMatch = new boolean[teamCount + 1];
+        if (hasText(condition.getTeamName())) {
+            boolean any = false;
+            for (int slot = 0; slot < teamCount; slot++) {
+                teamMatch[slot + 1] = condition.getTeamName().equals(teamNames[slot]);
+                any |= teamMatch[slot + 1];
+            }
+            if (!any) {
+                return null;
+            }
+        } else {
+            Arrays.fill(teamMatch, true);
+        }
+
+        return new Filter(
+                condition.getAgeGoe() == null ? Integer.MIN_VALUE : condition.getAgeGoe(),
+                condition.getAgeLoe() == null ? Integer.MAX_VALUE : condition.getAgeLoe(),
+                username,
+                teamMatch);
+    }
+
+    /**
+     * [from, to) 에서 조건에 맞는 행 수. 분기 없이 비교 결과를 더하기만 하므로 JIT 가 조건부 이동으로 펴기 좋다.
+     */
+    int count(final Filter filter, final int from, final int to) {
+        final int[] ages = this.ages;
+        final int[] usernames = this.usernames;
+        final int[] teams = this.teams;
+        final int usernameCode = filter.username;
+        final boolean anyUsername = usernameCode == ANY_USERNAME;
+        final int ageGoe = filter.ageGoe;
+        final int ageLoe = filter.ageLoe;
+        final boolean[] teamMatch = filter.teamMatch;
+
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            final int username = usernames[i];
+            final int age = ages[i];
+            final boolean match = (username != DELETED)
+                    & (anyUsername | username == usernameCode)
+                    & (age >= ageGoe)
+                    & (age <= ageLoe)
+                    & teamMatch[teams[i] + 1];
+            count += match ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * [from, to) 에서 조건에 맞는 행 중 skip 개를 건너뛰고 최대 limit 개의 위치를 out 에 담는다.
+     *
+     * @return 더 담을 수 있는 수. 0 이면 limit 을 채운 것이다.
+     */
+    int collect(final Filter filter, final int from, final int to, int skip, int limit, final IntList out) {
+        final int[] ages = this.ages;
+        final int[] usernames = this.usernames;
+        final int[] teams = this.teams;
+        final int usernameCode = filter.username;
+        final boolean anyUsername = usernameCode == ANY_USERNAME;
+        final int ageGoe = filter.ageGoe;
+        final int ageLoe = filter.ageLoe;
+        final boolean[] teamMatch = filter.teamMatch;
+
+        for (int i = from; i < to && limit > 0; i++) {
+            final int username = usernames[i];
+            final int age = ages[i];
+            final boolean match = (username != DELETED)
+                    & (anyUsername | username == usernameCode)
+                    & (age >= ageGoe)
+                    & (age <= ageLoe)
+                    & teamMatch[teams[i] + 1];
+            if (match) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    out.add(i);
+                    limit--;
+                }
+            }
+        }
+        return limit;
+    }
+
+    MemberTeamDto toDto(final int position) {
+        final int slot = teams[position];
+        return new MemberTeamDto(
+                ids[position],
+                usernameValues.get(usernames[position]),
+                ages[position],
+                slot == NO_TEAM ? null : teamIds[slot],
+                slot == NO_TEAM ? null : teamNames[slot]);
+    }
+
+    /**
+     * 64bit JVM, compressed oops 기준 추정치. 열 배열, username 사전, 팀 슬롯을 더한다.
+     * 문자열은 스냅샷이 프로젝션으로 직접 읽어 엔티티와 공유하지 않으므로 모두 센다.
+     */
+    long estimatedBytes() {
+        long bytes = 16L * 4 + (long) ids.length * (8 + 4 + 4 + 4) + (long) teamIds.length * (8 + 4);
+        bytes += usernameBytes;
+        for (int slot = 0; slot < teamCount; slot++) {
+            bytes += ENTRY_BYTES + (teamNames[slot] == null ? 0 : stringBytes(teamNames[slot]));
+        }
+        return bytes;
+    }
+
+    private int position(final long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private void insertAt(final int position, final long id) {
+        if (size == ids.length) {
+            final int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            teams = Arrays.copyOf(teams, capacity);
+        }
+        // id 는 대부분 증가하므로 보통 맨 뒤에 붙고 옮길 것이 없다.
+        final int moved = size - position;
+        if (moved > 0) {
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(ages, position, ages, position + 1, moved);
+            System.arraycopy(usernames, position, usernames, position + 1, moved);
+            System.arraycopy(teams, position, teams, position + 1, moved);
+        }
+        ids[position] = id;
+        size++;
+    }
+
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < size; from++) {
+            if (usernames[from] == DELETED) {
+                continue;
+            }
+            ids[to] = ids[from];
+            ages[to] = ages[from];
+            usernames[to] = usernames[from];
+            teams[to] = teams[from];
+            to++;
+        }
+        size = to;
+        deleted = 0;
+    }
+
+    private int usernameCode(final String username) {
+        final Integer code = usernameCodes.get(username);
+        if (code != null) {
+            return code;
+        }
+        usernameValues.add(username);
+        usernameCodes.put(username, usernameValues.size() - 1);
+        // 맵 항목에 더해 usernameValues 의 참조 하나
+        usernameBytes += ENTRY_BYTES + 4 + stringBytes(username);
+        return usernameValues.size() - 1;
+    }
+
+    private int teamSlot(final long teamId) {
+        final Integer slot = teamSlots.get(teamId);
+        if (slot != null) {
+            return slot;
+        }
+        if (teamCount == teamIds.length) {
+            teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+            teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+        }
+        teamIds[teamCount] = teamId;
+        teamSlots.put(teamId, teamCount);
+        return teamCount++;
+    }
+
+    private static long stringBytes(final String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        // String 객체 24 + byte[] 헤더 16 + 글자
+        return 24 + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    record Filter(int ageGoe, int ageLoe, int username, boolean[] teamMatch) {
+    }
+
+    static final class IntList {
+
+        private int[] values;
+        private int size;
+
+        IntList(final int capacity) {
+            values = new int[Math.max(capacity, 8)];
+        }
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(final int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
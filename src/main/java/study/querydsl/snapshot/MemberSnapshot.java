@@ -0,0 +1,319 @@
+package study.querydsl.snapshot;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member 검색 데이터를 {@link MemberColumns} 로 메모리에 들고 검색 조건을 DB 대신 답한다.
+ * <p>
+ * 시작할 때 스트리밍으로 읽어 만들고, 커밋된 Member/Team 변경을 반영한다. 만드는 동안 커밋된 변경은 쌓아 뒀다가
+ * 다 만든 뒤 다시 반영한다(id 기준 upsert/delete 라 두 번 반영돼도 같다).
+ * 이벤트가 나오지 않는 변경(StatelessSession, 벌크 연산)은 주기적인 {@link #reload()} 로 맞춘다.
+ * <p>
+ * SQL 경로에 정렬이 없어 DB 는 보통 기본키 순으로 돌려주므로, 스냅샷은 memberId 순으로 돌려준다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberSnapshotProperties.class)
+public class MemberSnapshot implements DisposableBean {
+
+    private final MemberSnapshotProperties properties;
+    private final EntityManagerFactory emf;
+    private final ForkJoinPool pool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MemberColumns columns;
+    private List<EntityChangeEvent> pending;
+
+    public MemberSnapshot(final MemberSnapshotProperties properties, final EntityManagerFactory emf,
+                          final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.emf = emf;
+        this.pool = new ForkJoinPool(properties.getParallelism());
+
+        Gauge.builder("member.snapshot.rows", this, snapshot -> snapshot.read(MemberColumns::size))
+                .register(meterRegistry);
+        Gauge.builder("member.snapshot.memory", this, snapshot -> snapshot.read(MemberColumns::estimatedBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 쓰는 트랜잭션 안에서는 아직 커밋되지 않은 자기 변경을 봐야 하므로 DB 로 보낸다.
+     */
+    public boolean isServing() {
+        if (!properties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return columns != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<MemberTeamDto> search(final MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            final MemberColumns current = columns;
+            final MemberColumns.Filter filter = current.filter(condition);
+            if (filter == null) {
+                return List.of();
+            }
+
+            final int segments = segments(current);
+            final List<MemberColumns.IntList> positions = pool.submit(() -> IntStream.range(0, segments)
+                    .parallel()
+                    .mapToObj(segment -> {
+                        final MemberColumns.IntList out = new MemberColumns.IntList(64);
+                        current.collect(filter, from(segment), to(current, segment), 0, Integer.MAX_VALUE, out);
+                        return out;
+                    })
+                    .toList()).join();
+
+            final List<MemberTeamDto> result = new ArrayList<>();
+            for (MemberColumns.IntList segment : positions) {
+                for (int i = 0; i < segment.size(); i++) {
+                    result.add(current.toDto(segment.get(i)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Page<MemberTeamDto> searchPage(final MemberSearchCondition condition, final Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            final MemberColumns current = columns;
+            final MemberColumns.Filter filter = current.filter(condition);
+            if (filter == null) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+
+            final int segments = segments(current);
+            final int[] counts = pool.submit(() -> IntStream.range(0, segments)
+                    .parallel()
+                    .map(segment -> current.count(filter, from(segment), to(current, segment)))
+                    .toArray()).join();
+
+            long total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(search(condition), pageable, total);
+            }
+
+            // offset 이 들어있는 구간부터 순서대로 훑는다.
+            long skip = pageable.getOffset();
+            int segment = 0;
+            while (segment < segments && skip >= counts[segment]) {
+                skip -= counts[segment++];
+            }
+            final MemberColumns.IntList positions = new MemberColumns.IntList(pageable.getPageSize());
+            int remaining = pageable.getPageSize();
+            for (; segment < segments && remaining > 0; segment++) {
+                remaining = current.collect(filter, from(segment), to(current, segment), (int) skip, remaining, positions);
+                skip = 0;
+            }
+
+            final List<MemberTeamDto> content = new ArrayList<>(positions.size());
+            for (int i = 0; i < positions.size(); i++) {
+                content.add(current.toDto(positions.get(i)));
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.snapshot.reload-interval:PT10M}",
+            initialDelayString = "${member.snapshot.reload-interval:PT10M}")
+    public void scheduledReload() {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    /**
+     * 새 스냅샷을 만들어 바꿔 끼운다. 만드는 동안에도 기존 스냅샷으로 응답한다.
+     */
+    public void reload() {
+        final long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        MemberColumns loaded = null;
+        try {
+            loaded = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded != null) {
+                    for (EntityChangeEvent event : pending) {
+                        apply(loaded, event);
+                    }
+                    columns = loaded;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("member snapshot loaded: {} rows in {} ms", read(MemberColumns::size),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션과 상관없이 따로 EntityManager 를 열어 커밋된 데이터로 만든다.
+     */
+    MemberColumns load() {
+        final EntityManager em = emf.createEntityManager();
+        try {
+            return load(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    MemberColumns load(final EntityManager em) {
+        final JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        final MemberColumns loaded = new MemberColumns(Math.toIntExact(
+                queryFactory.select(member.count()).from(member).fetchOne()));
+
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            loaded.putTeam(row.get(team.id), row.get(team.name));
+        }
+        try (Stream<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()) {
+            rows.forEach(row -> loaded.upsert(
+                    row.get(member.id), row.get(member.username), row.get(member.age), row.get(member.team.id)));
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (!event.isFor(Member.class) && !event.isFor(Team.class)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (columns != null) {
+                apply(columns, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(final MemberColumns target, final EntityChangeEvent event) {
+        if (event.isFor(Team.class)) {
+            final Team changed = (Team) event.getEntity();
+            target.putTeam(changed.getId(), event.getType() == EntityChangeEvent.Type.DELETE
+                    ? null
+                    : (String) event.getNewValue("name"));
+            return;
+        }
+
+        final Member changed = (Member) event.getEntity();
+        if (event.getType() == EntityChangeEvent.Type.DELETE) {
+            target.delete(changed.getId());
+            return;
+        }
+        final Team newTeam = (Team) event.getNewValue("team");
+        if (newTeam != null && !target.hasTeamName(newTeam.getId()) && Hibernate.isInitialized(newTeam)) {
+            target.putTeam(newTeam.getId(), newTeam.getName());
+        }
+        target.upsert(changed.getId(), (String) event.getNewValue("username"), (Integer) event.getNewValue("age"),
+                newTeam == null ? null : newTeam.getId());
+    }
+
+    private int segments(final MemberColumns current) {
+        return Math.max(1, (current.rows() + properties.getSegmentSize() - 1) / properties.getSegmentSize());
+    }
+
+    private int from(final int segment) {
+        return segment * properties.getSegmentSize();
+    }
+
+    private int to(final MemberColumns current, final int segment) {
+        return (int) Math.min((long) (segment + 1) * properties.getSegmentSize(), current.rows());
+    }
+
+    private long read(final ToLongFunction<MemberColumns> reader) {
+        lock.readLock().lock();
+        try {
+            return columns == null ? 0 : reader.applyAsLong(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.snapshot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.snapshot")
+public class MemberSnapshotProperties {
+
+    /**
+     * 켜면 search, searchPageSimple, searchPageComplex 를 DB 대신 메모리 스냅샷으로 응답한다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 이보다 행이 많으면 이 크기의 구간으로 나눠 병렬로 훑는다.
+     */
+    private int segmentSize = 65_536;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int fetchSize = 1000;
+}
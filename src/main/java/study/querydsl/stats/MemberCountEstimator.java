@@ -0,0 +1,172 @@
+package study.querydsl.stats;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 조건에 걸리는 member 수를 {@link MemberHistogram} 으로 추정한다.
+ * 추정치가 threshold 이상이면 어차피 테이블 대부분을 훑는 count 이므로 추정치를 대신 쓰고,
+ * 그보다 작거나 username 처럼 히스토그램에 없는 조건이 있으면 정확한 count 를 쓰도록 빈 값을 돌려준다.
+ * <p>
+ * 히스토그램은 애플리케이션이 뜬 뒤 group by 쿼리로 만들고, 커밋된 Member/Team 변경을 반영하며,
+ * refreshInterval 마다 스케줄러 스레드에서 다시 만든다. 요청 스레드에서는 만들지 않으므로
+ * 처음 만들어지기 전에는 정확한 count 를 쓰도록 빈 값을 돌려준다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberCountEstimatorProperties.class)
+public class MemberCountEstimator {
+
+    private final MemberCountEstimatorProperties properties;
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+
+    private volatile MemberHistogram histogram;
+
+    public MemberCountEstimator(final MemberCountEstimatorProperties properties, final EntityManagerFactory emf,
+                                final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public OptionalLong estimate(final MemberSearchCondition condition) {
+        if (!properties.isEnabled() || hasText(condition.getUsername()) || isWritingTransaction()) {
+            return OptionalLong.empty();
+        }
+
+        final MemberHistogram current = histogram;
+        if (current == null) {
+            meterRegistry.counter("member.count.estimator", "outcome", "not-ready").increment();
+            return OptionalLong.empty();
+        }
+        final long estimate = current.estimate(
+                hasText(condition.getTeamName()) ? condition.getTeamName() : null, condition.getAgeGoe(), condition.getAgeLoe());
+        final boolean approximate = estimate >= properties.getThreshold();
+        meterRegistry.counter("member.count.estimator", "outcome", approximate ? "estimated" : "exact").increment();
+        return approximate ? OptionalLong.of(estimate) : OptionalLong.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(final EntityChangeEvent event) {
+        final MemberHistogram current = histogram;
+        if (current == null) {
+            return;
+        }
+        if (event.isFor(Member.class)) {
+            applyMemberChange(current, event);
+        } else if (event.isFor(Team.class)) {
+            final Team changed = (Team) event.getEntity();
+            if (event.getType() == EntityChangeEvent.Type.DELETE) {
+                current.removeTeam(changed.getId());
+            } else {
+                current.putTeam(changed.getId(), (String) event.getNewValue("name"));
+            }
+        }
+    }
+
+    private static void applyMemberChange(final MemberHistogram current, final EntityChangeEvent event) {
+        final Integer oldAge = (Integer) event.getOldValue("age");
+        final Integer newAge = (Integer) event.getNewValue("age");
+        final Long oldTeam = teamIdOf(event.getOldValue("team"));
+        final Long newTeam = teamIdOf(event.getNewValue("team"));
+
+        switch (event.getType()) {
+            case INSERT -> current.add(newTeam, newAge, 1);
+            case DELETE -> {
+                if (oldAge != null) {
+                    current.add(oldTeam, oldAge, -1);
+                }
+            }
+            case UPDATE -> {
+                // 이전 상태를 모르면(detached merge) 다음 재구축까지 어긋난 채로 둔다.
+                if (event.getOldState() == null || (Objects.equals(oldAge, newAge) && Objects.equals(oldTeam, newTeam))) {
+                    return;
+                }
+                current.add(oldTeam, oldAge, -1);
+                current.add(newTeam, newAge, 1);
+            }
+        }
+    }
+
+    private static Long teamIdOf(final Object team) {
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.estimated-count.refresh-interval:PT10M}",
+            initialDelayString = "${member.estimated-count.refresh-interval:PT10M}")
+    public void scheduledRebuild() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 새 히스토그램을 만들어 바꿔 끼운다. 만드는 동안에도 기존 히스토그램으로 추정한다.
+     */
+    public void rebuild() {
+        histogram = build();
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션과 상관없이 따로 EntityManager 를 열어 커밋된 데이터로 만든다.
+     */
+    MemberHistogram build() {
+        final long start = System.nanoTime();
+        final MemberHistogram built = new MemberHistogram(properties.getBucketWidth(), properties.getMaxAge(), start);
+
+        final EntityManager em = emf.createEntityManager();
+        try {
+            final JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            for (Tuple row : queryFactory
+                    .select(member.team.id, member.age, member.count())
+                    .from(member)
+                    .groupBy(member.team.id, member.age)
+                    .fetch()) {
+                built.add(row.get(member.team.id), row.get(member.age), row.get(member.count()));
+            }
+            for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                built.putTeam(row.get(team.id), row.get(team.name));
+            }
+        } finally {
+            em.close();
+        }
+
+        log.info("built member histogram in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    private boolean isWritingTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.estimated-count")
+public class MemberCountEstimatorProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * 추정치가 이 이상이면 정확한 count 대신 추정치를 쓴다.
+     */
+    private long threshold = 100_000;
+
+    private int bucketWidth = 5;
+
+    /**
+     * 이보다 큰 나이는 마지막 버킷에 모은다.
+     */
+    private int maxAge = 150;
+
+    /**
+     * 이벤트로 반영되지 않는 변경(StatelessSession, 벌크 연산)으로 어긋난 값을 바로잡기 위해 히스토그램을 다시 만드는 주기.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,96 @@
+package study.querydsl.stats;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 팀별, 나이 구간별 member 수.
+ * 구간 안에서는 나이가 고르게 퍼져 있다고 보고, 조건이 구간 일부만 덮으면 덮은 비율만큼 센다.
+ */
+class MemberHistogram {
+
+    /**
+     * 팀이 없는 member 의 키.
+     */
+    static final long NO_TEAM = -1L;
+
+    private final int bucketWidth;
+    private final int buckets;
+    private final Map<Long, AtomicLongArray> counts = new ConcurrentHashMap<>();
+    private final Map<Long, String> teamNames = new ConcurrentHashMap<>();
+    private final long builtAt;
+
+    MemberHistogram(final int bucketWidth, final int maxAge, final long builtAt) {
+        this.bucketWidth = bucketWidth;
+        this.buckets = maxAge / bucketWidth + 1;
+        this.builtAt = builtAt;
+    }
+
+    long getBuiltAt() {
+        return builtAt;
+    }
+
+    void add(final Long teamId, final int age, final long delta) {
+        counts.computeIfAbsent(teamId == null ? NO_TEAM : teamId, key -> new AtomicLongArray(buckets))
+                .addAndGet(bucketOf(age), delta);
+    }
+
+    void putTeam(final Long teamId, final String name) {
+        teamNames.put(teamId, name == null ? "" : name);
+    }
+
+    void removeTeam(final Long teamId) {
+        teamNames.remove(teamId);
+    }
+
+    long estimate(final String teamName, final Integer ageGoe, final Integer ageLoe) {
+        final int lo = ageGoe == null ? 0 : Math.max(0, ageGoe);
+        final int hi = ageLoe == null ? Integer.MAX_VALUE : ageLoe;
+        if (lo > hi) {
+            return 0;
+        }
+
+        final Collection<Long> teamIds = teamName == null
+                ? counts.keySet()
+                : teamNames.entrySet().stream()
+                        .filter(entry -> Objects.equals(entry.getValue(), teamName))
+                        .map(Map.Entry::getKey)
+                        .toList();
+
+        double sum = 0;
+        for (Long teamId : teamIds) {
+            final AtomicLongArray bucketCounts = counts.get(teamId);
+            if (bucketCounts != null) {
+                sum += rangeSum(bucketCounts, lo, hi);
+            }
+        }
+        return Math.round(sum);
+    }
+
+    private double rangeSum(final AtomicLongArray bucketCounts, final int lo, final int hi) {
+        double sum = 0;
+        for (int bucket = bucketOf(lo); bucket <= bucketOf(hi); bucket++) {
+            final long count = bucketCounts.get(bucket);
+            if (count == 0) {
+                continue;
+            }
+            final int bucketLo = bucket * bucketWidth;
+            final int bucketHi = bucketLo + bucketWidth - 1;
+            // 마지막 버킷은 maxAge 이상을 모두 담으므로 위쪽이 열린 것으로 본다.
+            if (bucket == buckets - 1 && hi >= bucketLo) {
+                sum += count * (double) Math.max(0, bucketHi - Math.max(lo, bucketLo) + 1) / bucketWidth;
+                continue;
+            }
+            final int covered = Math.min(hi, bucketHi) - Math.max(lo, bucketLo) + 1;
+            sum += count * (double) Math.max(0, covered) / bucketWidth;
+        }
+        return sum;
+    }
+
+    private int bucketOf(final int age) {
+        return Math.min(Math.max(age, 0) / bucketWidth, buckets - 1);
+    }
+}
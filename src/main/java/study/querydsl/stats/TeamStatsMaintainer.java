@@ -0,0 +1,151 @@
+package study.querydsl.stats;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Member/Team 변경을 같은 트랜잭션 안에서 team_stats 에 반영한다.
+ * 변경과 함께 커밋되거나 롤백되므로 캐시처럼 AFTER_COMMIT 으로 받지 않는다.
+ * <p>
+ * flush 도중에 JDBC 를 실행하면 Hibernate 의 insert 배치가 끊기고 team_stats 행 잠금을 트랜잭션 끝까지 쥐게 되므로,
+ * 트랜잭션 동안 (team, age) 별 증감만 모았다가 커밋 직전, 마지막 flush 가 끝난 뒤에 한 번에 반영한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamStatsMaintainer {
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (event.isFor(Member.class)) {
+            final PendingChanges pending = pendingChanges();
+            applyMemberChange(event, pending);
+            pending.applyIfUnbound();
+        } else if (event.isFor(Team.class) && event.getType() == EntityChangeEvent.Type.DELETE) {
+            final PendingChanges pending = pendingChanges();
+            pending.deleteTeam(((Team) event.getEntity()).getId());
+            pending.applyIfUnbound();
+        }
+    }
+
+    private void applyMemberChange(final EntityChangeEvent event, final PendingChanges pending) {
+        final Integer oldAge = (Integer) event.getOldValue("age");
+        final Integer newAge = (Integer) event.getNewValue("age");
+        final Long oldTeam = teamIdOf(event.getOldValue("team"));
+        final Long newTeam = teamIdOf(event.getNewValue("team"));
+
+        switch (event.getType()) {
+            case INSERT -> pending.add(newTeam, newAge, 1);
+            case DELETE -> pending.add(oldTeam, oldAge, -1);
+            case UPDATE -> {
+                if (event.getOldState() == null) {
+                    log.warn("이전 상태를 알 수 없어 team_stats 에 반영하지 못했습니다. 다음 reconcile 때 맞춰집니다. {}", event);
+                    return;
+                }
+                if (Objects.equals(oldAge, newAge) && Objects.equals(oldTeam, newTeam)) {
+                    return;
+                }
+                pending.add(oldTeam, oldAge, -1);
+                pending.add(newTeam, newAge, 1);
+            }
+        }
+    }
+
+    /**
+     * 현재 세션의 트랜잭션에 묶인 증감. 트랜잭션에 묶인 세션이 없으면 바로 반영할 일회용을 돌려준다.
+     */
+    private PendingChanges pendingChanges() {
+        final EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (em == null) {
+            return new PendingChanges(false);
+        }
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(session);
+        if (pending == null) {
+            pending = new PendingChanges(true);
+            TransactionSynchronizationManager.bindResource(session, pending);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pending);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pending);
+        }
+        return pending;
+    }
+
+    private static Long teamIdOf(final Object team) {
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    /**
+     * Hibernate 는 커밋할 때 남은 변경을 flush 한 다음 before completion 작업을 실행한다.
+     * 스프링의 beforeCommit 은 그 flush 보다 먼저 불리므로 여기서는 Hibernate 쪽 훅을 쓴다. 롤백되면 반영하지 않는다.
+     */
+    private class PendingChanges implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final boolean bound;
+        private final Map<TeamStats.Key, Long> deltas = new HashMap<>();
+        private final Set<Long> deletedTeams = new HashSet<>();
+
+        PendingChanges(final boolean bound) {
+            this.bound = bound;
+        }
+
+        void add(final Long teamId, final Integer age, final long delta) {
+            // 팀이 없는 member 는 통계 대상이 아니다.
+            if (teamId != null && age != null) {
+                deltas.merge(new TeamStats.Key(teamId, age), delta, Long::sum);
+            }
+        }
+
+        void deleteTeam(final Long teamId) {
+            deletedTeams.add(teamId);
+        }
+
+        void applyIfUnbound() {
+            if (!bound) {
+                apply();
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(final SessionImplementor session) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(session);
+            apply();
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(final boolean success, final SharedSessionContractImplementor session) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(session);
+        }
+
+        private void apply() {
+            deltas.keySet().removeIf(key -> deletedTeams.contains(key.getTeamId()));
+            teamStatsRepository.addAll(deltas);
+            deletedTeams.forEach(teamStatsRepository::deleteTeam);
+            deltas.clear();
+            deletedTeams.clear();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "team-stats.reconcile")
+public class TeamStatsProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * false 면 어긋난 값을 찾아 로그와 메트릭만 남기고 고치지는 않는다.
+     */
+    private boolean repair = true;
+}
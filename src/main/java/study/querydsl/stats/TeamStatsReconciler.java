@@ -0,0 +1,85 @@
+package study.querydsl.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * member 테이블을 다시 세서 team_stats 와 비교한다.
+ * 이벤트가 나오지 않는 변경(StatelessSession 데이터 생성, 벌크 연산)이나 이전 상태를 모르는 merge 로 어긋난 값을 잡는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(TeamStatsProperties.class)
+public class TeamStatsReconciler {
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamStatsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transaction;
+
+    public TeamStatsReconciler(final TeamStatsRepository teamStatsRepository, final TeamStatsProperties properties,
+                               final MeterRegistry meterRegistry, final PlatformTransactionManager transactionManager) {
+        this.teamStatsRepository = teamStatsRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${team-stats.reconcile.interval:PT1H}",
+            initialDelayString = "${team-stats.reconcile.initial-delay:PT1M}")
+    public void scheduledReconcile() {
+        if (properties.isEnabled()) {
+            reconcile(properties.isRepair());
+        }
+    }
+
+    /**
+     * 다시 센 값과 비교, 수리를 한 트랜잭션에서 한다. 스케줄러처럼 같은 빈 안에서 불러도 트랜잭션이 걸리도록
+     * 프록시 대신 TransactionTemplate 을 쓴다.
+     *
+     * @return 값이 어긋난 (team, age) 수
+     */
+    public int reconcile(final boolean repair) {
+        return transaction.execute(status -> compare(repair));
+    }
+
+    private int compare(final boolean repair) {
+        final Map<TeamStats.Key, Long> expected = teamStatsRepository.recomputeCounts();
+        final Map<TeamStats.Key, Long> actual = teamStatsRepository.findCounts();
+
+        final Set<TeamStats.Key> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        int mismatches = 0;
+        for (TeamStats.Key key : keys) {
+            final long count = expected.getOrDefault(key, 0L);
+            if (Objects.equals(count, actual.getOrDefault(key, 0L))) {
+                continue;
+            }
+            mismatches++;
+            log.debug("team_stats 불일치 teamId={} age={} expected={} actual={}",
+                    key.getTeamId(), key.getAge(), count, actual.get(key));
+            if (repair) {
+                teamStatsRepository.repair(key.getTeamId(), key.getAge());
+            }
+        }
+
+        if (mismatches > 0) {
+            log.warn("team_stats 에서 {}개의 (team, age) 값이 어긋났습니다. repair={}", mismatches, repair);
+        }
+        meterRegistry.counter("team.stats.reconcile.mismatches", "repaired", String.valueOf(repair)).increment(mismatches);
+        return mismatches;
+    }
+}
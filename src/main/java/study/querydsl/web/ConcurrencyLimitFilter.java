@@ -0,0 +1,85 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시에 처리 중인 요청 수를 maxConcurrent 로 묶는다.
+ * 자리가 날 때까지 acquireTimeout 만큼 기다리고, 그래도 없으면 Hikari 대기열에 쌓이는 대신 바로 503 을 돌려준다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "web.execution.limiter", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WebExecutionProperties.class)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final WebExecutionProperties.Limiter properties;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(final WebExecutionProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties.getLimiter();
+        this.permits = new Semaphore(this.properties.getMaxConcurrent(), true);
+        this.waitTimer = Timer.builder("web.concurrency.limit.wait")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("web.concurrency.limit.rejected");
+        Gauge.builder("web.concurrency.limit.in-flight", this,
+                        filter -> filter.properties.getMaxConcurrent() - filter.permits.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getExcludePaths().stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        final long start = System.nanoTime();
+        final boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.getAcquireTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
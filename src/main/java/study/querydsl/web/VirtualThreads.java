@@ -0,0 +1,33 @@
+package study.querydsl.web;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 빌드는 Java 17 이라 가상 스레드 API 를 직접 부를 수 없어서, 실행 중인 JDK 에 있으면 리플렉션으로 꺼낸다.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalStateException("web.execution.mode=VIRTUAL requires JDK 21 or later, running on " + Runtime.version());
+        }
+        try {
+            final MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.web;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * web.execution.mode=VIRTUAL 이면 톰캣 커넥터의 요청 처리 스레드 풀을 가상 스레드 실행기로 바꾼다.
+ * 가상 스레드는 얼마든지 만들어지므로 커넥션 풀 앞에서 {@link ConcurrencyLimitFilter} 가 동시 요청 수를 막는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "web.execution", name = "mode", havingValue = "VIRTUAL")
+@EnableConfigurationProperties(WebExecutionProperties.class)
+public class WebExecutionConfig implements DisposableBean {
+
+    private ExecutorService executor;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "web.execution")
+public class WebExecutionProperties {
+
+    /**
+     * PLATFORM 은 톰캣 기본 스레드 풀, VIRTUAL 은 요청마다 가상 스레드(JDK 21 이상)를 쓴다.
+     */
+    private Mode mode = Mode.PLATFORM;
+
+    private Limiter limiter = new Limiter();
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    @Getter
+    @Setter
+    public static class Limiter {
+
+        /**
+         * 기본은 꺼져 있다. 톰캣 스레드 풀이 이미 동시 요청 수를 묶는 PLATFORM 보다는,
+         * 요청 수에 제한이 없는 VIRTUAL 에서 커넥션 풀 앞에 두려고 켠다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * 동시에 처리할 요청 수. 커넥션 풀 크기와 맞춘다.
+         */
+        private int maxConcurrent = 10;
+
+        /**
+         * 자리를 기다리는 최대 시간. 넘으면 503 으로 돌려보낸다.
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 제한하지 않을 경로 prefix. 커넥션을 쓰지 않는 경로(메모리 자동완성)와
+         * 한 요청이 자리를 오래 쥐는 스트리밍 내보내기, 벌크 입력은 기본으로 뺀다.
+         */
+        private List<String> excludePaths = new ArrayList<>(List.of(
+                "/actuator", "/members/autocomplete", "/v1/members/stream", "/members/bulk"));
+    }
+}
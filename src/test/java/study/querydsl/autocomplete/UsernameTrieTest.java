@@ -0,0 +1,70 @@
+package study.querydsl.autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameTrieTest {
+
+    @Test
+    public void 접두사_사전순() {
+        final UsernameTrie trie = new UsernameTrie();
+        List.of("member10", "member2", "member1", "manager", "회원1", "member").forEach(trie::add);
+
+        assertThat(trie.complete("me", 10)).containsExactly("member", "member1", "member10", "member2");
+        assertThat(trie.complete("member1", 10)).containsExactly("member1", "member10");
+        assertThat(trie.complete("mem", 2)).containsExactly("member", "member1");
+        assertThat(trie.complete("회", 10)).containsExactly("회원1");
+        assertThat(trie.complete("memberx", 10)).isEmpty();
+        assertThat(trie.complete("x", 10)).isEmpty();
+        assertThat(trie.complete("", 3)).containsExactly("manager", "member", "member1");
+    }
+
+    @Test
+    public void 삭제하면_노드가_합쳐진다() {
+        final UsernameTrie trie = new UsernameTrie();
+        trie.add("member1");
+        trie.add("member2");
+        trie.add("member2");
+        final int nodes = trie.nodeCount();
+
+        assertThat(trie.remove("member2")).isTrue();
+        assertThat(trie.complete("member", 10)).containsExactly("member1", "member2");
+
+        assertThat(trie.remove("member2")).isTrue();
+        assertThat(trie.remove("member2")).isFalse();
+        assertThat(trie.remove("member")).isFalse();
+        assertThat(trie.complete("member", 10)).containsExactly("member1");
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.nodeCount()).isLessThan(nodes);
+        assertThat(trie.estimatedBytes()).isPositive();
+    }
+
+    @Test
+    public void 무작위_추가삭제() {
+        final UsernameTrie trie = new UsernameTrie();
+        final TreeMap<String, Integer> expected = new TreeMap<>();
+        final Random random = new Random(0);
+
+        IntStream.range(0, 20_000).forEach(i -> {
+            final String username = "m" + Integer.toString(random.nextInt(3_000), 7);
+            if (random.nextInt(3) == 0) {
+                assertThat(trie.remove(username)).isEqualTo(expected.containsKey(username));
+                expected.computeIfPresent(username, (key, count) -> count == 1 ? null : count - 1);
+            } else {
+                trie.add(username);
+                expected.merge(username, 1, Integer::sum);
+            }
+        });
+
+        assertThat(trie.size()).isEqualTo(expected.size());
+        assertThat(trie.complete("m", Integer.MAX_VALUE)).containsExactlyElementsOf(expected.keySet());
+        assertThat(trie.complete("m12", 5)).containsExactlyElementsOf(
+                expected.subMap("m12", "m13").keySet().stream().limit(5).toList());
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemberCountCache memberCountCache;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        memberCountCache = new MemberCountCache(new MemberCountCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    public void 정규화된_조건으로_캐시된다() {
+        final AtomicLong queries = new AtomicLong();
+
+        memberCountCache.get(MemberSearchCondition.builder().teamName("teamA").username("").build(), queries::incrementAndGet);
+        final long count = memberCountCache.get(MemberSearchCondition.builder().teamName("teamA").build(), queries::incrementAndGet);
+
+        assertThat(count).isEqualTo(1L);
+        assertThat(queries.get()).isEqualTo(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "member.count").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    public void 멤버가_바뀌면_무효화된다() {
+        final AtomicLong queries = new AtomicLong();
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(10).build();
+
+        memberCountCache.get(condition, queries::incrementAndGet);
+        memberCountCache.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.INSERT,
+                Member.builder().username("member1").age(10).build(), new String[0], null, new Object[0]));
+        memberCountCache.get(condition, queries::incrementAndGet);
+
+        assertThat(queries.get()).isEqualTo(2L);
+    }
+}
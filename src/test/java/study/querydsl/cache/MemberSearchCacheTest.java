@@ -0,0 +1,95 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchCacheTest {
+
+    private static final String[] MEMBER_PROPERTIES = {"age", "team", "username"};
+
+    private MemberSearchCache memberSearchCache;
+    private AtomicInteger queries;
+
+    @BeforeEach
+    public void init() {
+        memberSearchCache = new MemberSearchCache(new MemberSearchCacheProperties(), new SimpleMeterRegistry());
+        queries = new AtomicInteger();
+    }
+
+    @Test
+    public void 바뀐_멤버가_걸리는_조건만_무효화된다() {
+        final Team teamA = Team.builder().name("teamA").build();
+        final MemberSearchCondition teamACondition = MemberSearchCondition.builder().teamName("teamA").ageGoe(20).build();
+        final MemberSearchCondition teamBCondition = MemberSearchCondition.builder().teamName("teamB").build();
+        final MemberSearchCondition youngCondition = MemberSearchCondition.builder().ageLoe(15).build();
+
+        search(teamACondition);
+        search(teamBCondition);
+        search(youngCondition);
+
+        memberSearchCache.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.INSERT,
+                Member.builder().build(), MEMBER_PROPERTIES, null, new Object[]{30, teamA, "member5"}));
+
+        search(teamACondition);
+        search(teamBCondition);
+        search(youngCondition);
+
+        assertThat(queries.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void 팀_이름이_바뀌면_해당_팀_조건이_무효화된다() {
+        final MemberSearchCondition teamACondition = MemberSearchCondition.builder().teamName("teamA").build();
+        final MemberSearchCondition teamBCondition = MemberSearchCondition.builder().teamName("teamB").build();
+
+        search(teamACondition);
+        search(teamBCondition);
+
+        memberSearchCache.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE,
+                Team.builder().build(), new String[]{"members", "name"},
+                new Object[]{new ArrayList<>(), "teamA"}, new Object[]{new ArrayList<>(), "teamC"}));
+
+        search(teamACondition);
+        search(teamBCondition);
+
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void 이전_상태를_모르는_수정이면_전부_무효화된다() {
+        final Team teamB = Team.builder().name("teamB").build();
+        final MemberSearchCondition teamACondition = MemberSearchCondition.builder().teamName("teamA").build();
+        final MemberSearchCondition teamBCondition = MemberSearchCondition.builder().teamName("teamB").build();
+
+        search(teamACondition);
+        search(teamBCondition);
+
+        // teamA 에서 teamB 로 옮겨졌을 수도 있다.
+        memberSearchCache.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE,
+                Member.builder().build(), MEMBER_PROPERTIES, null, new Object[]{30, teamB, "member5"}));
+
+        search(teamACondition);
+        search(teamBCondition);
+
+        assertThat(queries.get()).isEqualTo(4);
+    }
+
+    private List<MemberTeamDto> search(final MemberSearchCondition condition) {
+        return memberSearchCache.get(condition, () -> {
+            queries.incrementAndGet();
+            return List.of(MemberTeamDto.builder().username("member1").build());
+        });
+    }
+}
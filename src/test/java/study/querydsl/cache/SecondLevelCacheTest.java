@@ -0,0 +1,118 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@DataJpaTest(properties = "second-level-cache.enabled=true")
+@ActiveProfiles("test")
+@Import(SecondLevelCacheConfig.class)
+// READ_WRITE 캐시는 같은 세션에서 넣은 항목을 돌려주지 않으므로 트랜잭션을 나눠야 한다.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    Statistics statistics;
+    Long teamId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            final Team teamA = Team.builder().name("teamA").build();
+            em.persist(teamA);
+            final Member member1 = Member.builder().username("member1").age(10).team(teamA).build();
+            em.persist(member1);
+            teamId = teamA.getId();
+            memberId = member1.getId();
+        });
+        emf.getCache().evictAll();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            queryFactory.delete(member).execute();
+            queryFactory.delete(team).execute();
+        });
+    }
+
+    @Test
+    public void 팀은_2차_캐시에서_읽음() {
+        findTeam();
+        final long statements = statistics.getPrepareStatementCount();
+
+        assertThat(findTeam().getName()).isEqualTo("teamA");
+
+        final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Team.CACHE_REGION);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getPutCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    public void member_team_탐색은_팀을_다시_조회하지_않음() {
+        findTeam();
+        final long statements = statistics.getPrepareStatementCount();
+
+        final String teamName = transaction.execute(status -> em.find(Member.class, memberId).getTeam().getName());
+
+        assertThat(teamName).isEqualTo("teamA");
+        // member 조회 한 번만 나간다.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements + 1);
+        assertThat(statistics.getDomainDataRegionStatistics(Team.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void JPQL_벌크_수정은_region_을_비움() {
+        findTeam();
+        assertThat(emf.getCache().contains(Team.class, teamId)).isTrue();
+
+        transaction.executeWithoutResult(status ->
+                queryFactory.update(team).set(team.name, "renamed").where(team.id.eq(teamId)).execute());
+
+        assertThat(emf.getCache().contains(Team.class, teamId)).isFalse();
+        assertThat(findTeam().getName()).isEqualTo("renamed");
+    }
+
+    private Team findTeam() {
+        return transaction.execute(status -> em.find(Team.class, teamId));
+    }
+}
@@ -17,11 +17,17 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import study.querydsl.autocomplete.UsernameAutocomplete;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.SearchPlan;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberJsonWriter;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -30,6 +36,8 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
@@ -50,6 +58,15 @@ class MemberControllerTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private MemberExportService memberExportService;
+
+    @Mock
+    private UsernameAutocomplete usernameAutocomplete;
+
+    @Mock
+    private MemberJsonWriter memberJsonWriter;
+
     @Spy
     private PageableHandlerMethodArgumentResolver pageableHandlerMethodArgumentResolver;
 
@@ -112,7 +129,7 @@ class MemberControllerTest {
 
 
         doReturn(PageableExecutionUtils.getPage(content, PageRequest.of(0, 4), () -> 4L))
-                .when(memberRepository).searchPageComplex(any(MemberSearchCondition.class), any(Pageable.class));
+                .when(memberRepository).searchPageComplex(any(MemberSearchCondition.class), any(Pageable.class), any(SearchPlan.class));
 
         final ResultActions result = mockMvc.perform(
                 get(url)
@@ -133,7 +150,66 @@ class MemberControllerTest {
 
     }
 
+    @Test
+    public void 멤버_직접_직렬화_조회() throws Exception {
+        doReturn(0L).when(memberJsonWriter).write(any(MemberSearchCondition.class), any(OutputStream.class));
 
+        final ResultActions result = mockMvc.perform(
+                get("/v1/members")
+                        .param("serialization", "direct")
+                        .param("teamName", "teamA")
+        );
+
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/json"));
+        verify(memberJsonWriter, times(1)).write(any(MemberSearchCondition.class), any(OutputStream.class));
+        verify(memberJpaRepository, never()).search(any(MemberSearchCondition.class));
+    }
 
+    @Test
+    public void 멤버_스트리밍_조회() throws Exception {
+        final String url = "/v1/members/stream";
 
-}
\ No newline at end of file
+        doReturn(0L).when(memberExportService).exportNdjson(any(MemberSearchCondition.class), any(OutputStream.class));
+
+        final ResultActions result = mockMvc.perform(
+                get(url)
+                        .param("teamName", "teamA")
+        );
+
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson;charset=UTF-8"));
+        verify(memberExportService, times(1)).exportNdjson(any(MemberSearchCondition.class), any(OutputStream.class));
+    }
+
+    @Test
+    public void 유저네임_자동완성() throws Exception {
+        doReturn(List.of("member1", "member10")).when(usernameAutocomplete).complete("member1", 2);
+
+        final ResultActions result = mockMvc.perform(
+                get("/members/autocomplete")
+                        .param("prefix", "member1")
+                        .param("limit", "2")
+        );
+
+        result.andExpect(MockMvcResultMatchers.status().isOk());
+        final String[] usernames = objectMapper.readValue(result.andReturn().getResponse().getContentAsString(), String[].class);
+        assertThat(usernames).containsExactly("member1", "member10");
+    }
+
+    @Test
+    public void 커서_페이지_크기는_상한으로_자르고_0_이하는_400() throws Exception {
+        doReturn(MemberSlice.builder().content(List.of()).hasNext(false).build())
+                .when(memberRepository).searchSlice(any(MemberSearchCondition.class), any(), anyInt());
+
+        mockMvc.perform(get("/v4/members").param("size", "100000000"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        verify(memberRepository).searchSlice(any(MemberSearchCondition.class), any(), eq(2_000));
+
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "-1"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        verifyNoMoreInteractions(memberRepository);
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.validation.BindValidationException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataGeneratorPropertiesTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(Config.class);
+
+    @Test
+    public void 기본값은_통과() {
+        runner.run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @Test
+    public void age_min_이_age_max_보다_크면_실패() {
+        runner.withPropertyValues("datagen.age-min=50", "datagen.age-max=10")
+                .run(context -> assertThat(context).getFailure()
+                        .hasRootCauseInstanceOf(BindValidationException.class)
+                        .rootCause().hasMessageContaining("ageRangeValid"));
+    }
+
+    @Test
+    public void 팀_수가_음수면_실패() {
+        runner.withPropertyValues("datagen.teams=-1")
+                .run(context -> assertThat(context).getFailure()
+                        .hasRootCauseInstanceOf(BindValidationException.class)
+                        .rootCause().hasMessageContaining("teams"));
+    }
+
+    @EnableConfigurationProperties(DataGeneratorProperties.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberDataGeneratorTest {
+
+    @Test
+    public void 지수가_0이면_팀_크기가_고르다() {
+        final int[] sizes = sample(10, 0, 100_000);
+
+        for (int size : sizes) {
+            assertThat(size).isBetween(9_000, 11_000);
+        }
+    }
+
+    @Test
+    public void 지수가_크면_앞쪽_팀에_몰린다() {
+        final int[] sizes = sample(1_000, 1.1, 100_000);
+
+        assertThat(sizes[0]).isGreaterThan(sizes[9] * 5);
+        assertThat(sizes[0] + sizes[1] + sizes[2]).isGreaterThan(100_000 / 4);
+    }
+
+    @Test
+    public void 같은_seed_면_같은_분포가_나온다() {
+        assertThat(sample(100, 1.1, 10_000)).containsExactly(sample(100, 1.1, 10_000));
+    }
+
+    private static int[] sample(final int teams, final double skew, final int members) {
+        final double[] cdf = MemberDataGenerator.zipfCdf(teams, skew);
+        final SplittableRandom random = new SplittableRandom(42L);
+        final int[] sizes = new int[teams];
+        for (int i = 0; i < members; i++) {
+            sizes[MemberDataGenerator.sample(cdf, random)]++;
+        }
+        return sizes;
+    }
+}
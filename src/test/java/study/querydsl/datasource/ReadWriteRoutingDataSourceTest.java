@@ -0,0 +1,103 @@
+package study.querydsl.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "select lag_seconds from replica_status";
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    private EmbeddedDatabase database(final String name) {
+        final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table whoami (name varchar(20))");
+        jdbcTemplate.update("insert into whoami values (?)", name);
+        jdbcTemplate.execute("create table replica_status (lag_seconds int)");
+        jdbcTemplate.update("insert into replica_status values (0)");
+        databases.add(database);
+        return database;
+    }
+
+    private static String whoami(final ReadWriteRoutingDataSource dataSource, final boolean readOnly) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from whoami", String.class));
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_replica() {
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+                database("primary"), List.of(new Replica("replica", database("replica"), LAG_QUERY)), Duration.ofSeconds(5));
+
+        assertThat(whoami(dataSource, true)).isEqualTo("replica");
+        assertThat(whoami(dataSource, false)).isEqualTo("primary");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select name from whoami", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    public void replica_라운드로빈() {
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(database("primary"), List.of(
+                new Replica("replica1", database("replica1"), LAG_QUERY),
+                new Replica("replica2", database("replica2"), LAG_QUERY)), Duration.ofSeconds(5));
+
+        final List<String> reads = IntStream.range(0, 4).mapToObj(i -> whoami(dataSource, true)).toList();
+
+        assertThat(reads).containsExactly("replica1", "replica2", "replica1", "replica2");
+    }
+
+    @Test
+    public void 지연된_replica는_건너뛴다() {
+        final EmbeddedDatabase lagging = database("lagging");
+        final EmbeddedDatabase replica = database("replica");
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(database("primary"), List.of(
+                new Replica("lagging", lagging, LAG_QUERY),
+                new Replica("replica", replica, LAG_QUERY)), Duration.ofSeconds(5));
+
+        new JdbcTemplate(lagging).update("update replica_status set lag_seconds = 60");
+        dataSource.checkReplicas();
+
+        assertThat(IntStream.range(0, 4).mapToObj(i -> whoami(dataSource, true))).containsOnly("replica");
+
+        new JdbcTemplate(replica).update("update replica_status set lag_seconds = 60");
+        dataSource.checkReplicas();
+
+        assertThat(whoami(dataSource, true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void 내려간_replica는_primary로_대체() {
+        // 아무도 듣고 있지 않은 포트
+        final DataSource unreachable = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/replica", "sa", "");
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+                database("primary"), List.of(new Replica("replica", unreachable, LAG_QUERY)), Duration.ofSeconds(5));
+
+        assertThat(whoami(dataSource, true)).isEqualTo("primary");
+        assertThat(dataSource.getReplicas().get(0).isHealthy()).isFalse();
+    }
+}
@@ -0,0 +1,161 @@
+package study.querydsl.index;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.ConcurrentPageExecutor;
+import study.querydsl.repository.MemberRepositoryCustomImpl;
+import study.querydsl.repository.MemberSearchTemplates;
+import study.querydsl.repository.SearchPlan;
+import study.querydsl.snapshot.MemberSnapshot;
+import study.querydsl.stats.MemberCountEstimator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// 인덱스는 쓰는 트랜잭션 안에서 쓰지 않으므로 테스트 트랜잭션을 readOnly 로 둔다.
+@Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+class MemberBitmapIndexTest {
+
+    private static final String[] PROPERTIES = {"age", "team", "username"};
+
+    @Autowired
+    EntityManager em;
+
+    MemberBitmapIndex index;
+
+    @BeforeEach
+    public void before() {
+        final Team teamA = Team.builder().name("teamA").build();
+        final Team teamB = Team.builder().name("teamB").build();
+        // 이름이 같은 팀
+        final Team otherTeamA = Team.builder().name("teamA").build();
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(otherTeamA);
+
+        final Team[] teams = {teamA, teamB, otherTeamA, null};
+        for (int i = 0; i < 40; i++) {
+            em.persist(Member.builder().username("member" + i).age(i).team(teams[i % 4]).build());
+        }
+        em.flush();
+        em.clear();
+
+        final MemberBitmapIndexProperties properties = new MemberBitmapIndexProperties();
+        properties.setEnabled(true);
+        index = new MemberBitmapIndex(properties, null, new SimpleMeterRegistry()) {
+            @Override
+            MemberBitmaps build() {
+                return build(em);
+            }
+        };
+        index.rebuild();
+    }
+
+    @Test
+    public void SQL과_같은_결과() {
+        for (MemberSearchCondition condition : List.of(
+                MemberSearchCondition.builder().build(),
+                MemberSearchCondition.builder().ageGoe(10).build(),
+                MemberSearchCondition.builder().ageGoe(10).ageLoe(25).build(),
+                MemberSearchCondition.builder().ageGoe(25).ageLoe(10).build(),
+                MemberSearchCondition.builder().teamName("teamA").build(),
+                MemberSearchCondition.builder().teamName("teamB").ageLoe(20).build(),
+                MemberSearchCondition.builder().teamName("none").ageGoe(1).build())) {
+
+            final List<Long> expected = MemberSearchTemplates.of(condition).fetch(em, condition).stream()
+                    .map(MemberTeamDto::getMemberId)
+                    .sorted()
+                    .toList();
+            final RoaringBitmap ids = index.match(condition).orElseThrow();
+
+            assertThat(ids.getLongCardinality()).as(condition.toString()).isEqualTo(expected.size());
+            assertThat(MemberBitmapIndex.slice(ids, 0, Integer.MAX_VALUE)).as(condition.toString())
+                    .containsExactlyElementsOf(expected);
+            assertThat(MemberBitmapIndex.slice(ids, 3, 2)).as(condition.toString())
+                    .containsExactlyElementsOf(expected.subList(Math.min(3, expected.size()), Math.min(5, expected.size())));
+        }
+    }
+
+    @Test
+    public void username_조건은_인덱스를_쓰지_않는다() {
+        assertThat(index.match(MemberSearchCondition.builder().username("member1").build())).isEmpty();
+    }
+
+    @Test
+    public void 변경_반영() {
+        final Member member0 = em.createQuery("select m from Member m where m.age = 0", Member.class).getSingleResult();
+        final Team teamB = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+
+        index.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE, member0, PROPERTIES,
+                new Object[]{0, member0.getTeam(), "member0"}, new Object[]{50, teamB, "member0"}));
+        assertThat(index.match(MemberSearchCondition.builder().teamName("teamB").ageGoe(50).build()).orElseThrow()
+                .contains(member0.getId().intValue())).isTrue();
+        assertThat(index.match(MemberSearchCondition.builder().ageLoe(0).build()).orElseThrow().isEmpty()).isTrue();
+
+        // 이전 상태를 모르는 경우
+        index.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE, member0, PROPERTIES,
+                null, new Object[]{5, null, "member0"}));
+        assertThat(index.match(MemberSearchCondition.builder().teamName("teamB").build()).orElseThrow()
+                .contains(member0.getId().intValue())).isFalse();
+
+        index.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.DELETE, member0, PROPERTIES,
+                new Object[]{5, null, "member0"}, null));
+        assertThat(index.match(MemberSearchCondition.builder().build()).orElseThrow().getLongCardinality()).isEqualTo(39);
+        assertThat(index.bytesPerMillion()).isPositive();
+    }
+
+    @Test
+    public void 인덱스가_늦어도_조건에_맞는_member_만_돌려준다() {
+        final StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("memberBitmapIndex", index));
+        final MemberRepositoryCustomImpl repository = new MemberRepositoryCustomImpl(em, new JPAQueryFactory(em),
+                beans.getBeanProvider(MemberCountCache.class),
+                beans.getBeanProvider(MemberSearchCache.class),
+                beans.getBeanProvider(ConcurrentPageExecutor.class),
+                beans.getBeanProvider(MemberCountEstimator.class),
+                beans.getBeanProvider(MemberSnapshot.class),
+                beans.getBeanProvider(MemberBitmapIndex.class));
+
+        // 이벤트가 없는 벌크 연산이라 인덱스는 모른다.
+        em.createQuery("delete from Member m where m.age = 0").executeUpdate();
+        em.createQuery("update Member m set m.age = 99 where m.age = 1").executeUpdate();
+
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageLoe(5).build();
+        final Page<MemberTeamDto> first = repository.searchPageComplex(condition, PageRequest.of(0, 3), SearchPlan.BITMAP_INDEX);
+        final Page<MemberTeamDto> second = repository.searchPageComplex(condition, PageRequest.of(1, 3), SearchPlan.BITMAP_INDEX);
+
+        // 조건을 벗어난 member 는 인덱스에서 바로잡고 다시 잘라 첫 페이지를 채운다.
+        assertThat(first.getContent()).extracting(MemberTeamDto::getAge).containsExactly(2, 3, 4);
+        assertThat(second.getContent()).extracting(MemberTeamDto::getAge).containsExactly(5);
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first).isInstanceOfSatisfying(EstimatedPage.class, page -> assertThat(page.isApproximate()).isTrue());
+
+        // 바로잡은 결과는 인덱스에 남는다.
+        assertThat(index.match(condition)).hasValueSatisfying(ids -> assertThat(ids.getCardinality()).isEqualTo(4));
+        assertThat(index.match(MemberSearchCondition.builder().ageGoe(99).build()))
+                .hasValueSatisfying(ids -> assertThat(ids.getCardinality()).isEqualTo(1));
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=ormperf")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrmPerfEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void actuator_로만_노출된다() throws Exception {
+        mockMvc.perform(get("/actuator/ormperf").param("slowest", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statisticsEnabled").exists());
+        mockMvc.perform(delete("/actuator/ormperf"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/internal/perf")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/internal/perf/reset")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,116 @@
+package study.querydsl.metrics;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.querydsl.dto.OrmPerfReport;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OrmPerfReporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    OrmPerfReporter reporter;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        final Team teamA = Team.builder().name("teamA").build();
+        em.persist(teamA);
+        final Member member1 = Member.builder().username("member1").age(10).team(teamA).build();
+        em.persist(member1);
+        em.persist(Member.builder().username("member2").age(20).team(teamA).build());
+        em.flush();
+        em.clear();
+        memberId = member1.getId();
+
+        reporter = new OrmPerfReporter(emf, dataSource);
+        reporter.reset();
+    }
+
+    @Test
+    public void 엔티티와_쿼리_통계() {
+        for (int i = 0; i < 3; i++) {
+            queryFactory.selectFrom(member).where(member.age.goe(10)).fetch();
+            em.clear();
+        }
+        em.find(Member.class, memberId).getTeam().getName();
+
+        final OrmPerfReport report = reporter.report(5);
+
+        assertThat(report.isStatisticsEnabled()).isTrue();
+        assertThat(report.getQueryPlanCacheHits()).isGreaterThanOrEqualTo(2);
+        assertThat(report.getEntities())
+                .filteredOn(entity -> entity.getEntity().equals("Member"))
+                .singleElement()
+                .satisfies(entity -> assertThat(entity.getLoads()).isEqualTo(7));
+        assertThat(report.getEntities())
+                .filteredOn(entity -> entity.getEntity().equals("Team"))
+                .singleElement()
+                .satisfies(entity -> assertThat(entity.getFetches()).isEqualTo(1));
+        assertThat(report.getSlowestQueries())
+                .singleElement()
+                .satisfies(query -> {
+                    assertThat(query.getQuery()).contains("member1.age >= ?1");
+                    assertThat(query.getExecutions()).isEqualTo(3);
+                    assertThat(query.getRows()).isEqualTo(6);
+                });
+    }
+
+    @Test
+    public void reset_하면_카운터가_0() {
+        queryFactory.selectFrom(member).fetch();
+        assertThat(reporter.report(5).getSlowestQueries()).isNotEmpty();
+
+        reporter.reset();
+
+        final OrmPerfReport report = reporter.report(5);
+        assertThat(report.getSlowestQueries()).isEmpty();
+        assertThat(report.getEntities()).allSatisfy(entity -> assertThat(entity.getLoads()).isZero());
+    }
+
+    @Test
+    public void hikari_풀_상태() throws Exception {
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            hikari.setJdbcUrl("jdbc:h2:mem:perf");
+            hikari.setPoolName("perf");
+            hikari.setMaximumPoolSize(2);
+
+            try (Connection ignored = hikari.getConnection()) {
+                final OrmPerfReport report = new OrmPerfReporter(emf, hikari).report(0);
+
+                assertThat(report.getPools()).singleElement().satisfies(pool -> {
+                    assertThat(pool.getPool()).isEqualTo("perf");
+                    assertThat(pool.getActive()).isEqualTo(1);
+                    assertThat(pool.getMax()).isEqualTo(2);
+                    assertThat(pool.getPending()).isZero();
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.assertj.core.api.Assertions.fail;
+
+public class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(final ExtensionContext context) {
+        final StatementBudget budget = context.getRequiredTestMethod().getAnnotation(StatementBudget.class);
+        final StatementBudgetScope scope = StatementBudgetScope.open(context.getDisplayName(), budget.value());
+        context.getStore(NAMESPACE).put(context.getUniqueId(), scope);
+    }
+
+    @Override
+    public void afterTestExecution(final ExtensionContext context) {
+        final StatementBudgetScope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), StatementBudgetScope.class);
+        scope.close();
+        if (scope.isExceeded()) {
+            fail(scope.describe());
+        }
+    }
+}
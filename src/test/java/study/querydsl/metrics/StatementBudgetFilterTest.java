@@ -0,0 +1,62 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import study.querydsl.exception.StatementBudgetExceededException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementBudgetFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatementBudgetFilter filter;
+
+    @BeforeEach
+    public void init() {
+        final StatementBudgetProperties properties = new StatementBudgetProperties();
+        properties.setFailOnExceed(true);
+        properties.getEndpoints().put("/v1/members/stream", 1);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StatementBudgetFilter(properties, meterRegistry);
+    }
+
+    @Test
+    public void 커밋_전이면_실패시킨다() {
+        final FilterChain chain = (request, response) -> executeStatements(2);
+
+        assertThatThrownBy(() -> filter.doFilter(request(), new MockHttpServletResponse(), chain))
+                .isInstanceOf(StatementBudgetExceededException.class);
+        assertThat(meterRegistry.get("statement.budget.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void 이미_커밋된_응답은_실패시키지_않고_기록만_한다() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final FilterChain chain = (req, res) -> {
+            executeStatements(1);
+            res.getOutputStream().write("{}\n".getBytes());
+            res.flushBuffer();
+            executeStatements(1);
+        };
+
+        filter.doFilter(request(), response, chain);
+
+        assertThat(response.getContentAsString()).isEqualTo("{}\n");
+        assertThat(meterRegistry.get("statement.budget.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/v1/members/stream");
+    }
+
+    private static void executeStatements(final int count) {
+        for (int i = 0; i < count; i++) {
+            JdbcActivity.current().statementExecuted("select 1");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package study.querydsl.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ConcurrentPageExecutorTest {
+
+    SimpleMeterRegistry meterRegistry;
+    EntityManager em;
+    Session contentSession;
+    Session countSession;
+    ConcurrentPageExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        contentSession = mock(Session.class);
+        countSession = mock(Session.class);
+        em = mock(EntityManager.class);
+        // 호출 스레드가 먼저 unwrap 하고, 그 다음 count 스레드가 unwrap 한다.
+        when(em.unwrap(Session.class)).thenReturn(contentSession, countSession);
+
+        executor = new ConcurrentPageExecutor(new ConcurrentPageProperties(), mock(PlatformTransactionManager.class),
+                mock(DataSource.class), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    public void content와_count를_동시에_실행() {
+        final CountDownLatch contentStarted = new CountDownLatch(1);
+        final CountDownLatch countStarted = new CountDownLatch(1);
+
+        final Page<String> page = executor.execute(em, PageRequest.of(0, 2),
+                () -> {
+                    contentStarted.countDown();
+                    await(countStarted);
+                    return List.of("member1", "member2");
+                },
+                () -> {
+                    countStarted.countDown();
+                    await(contentStarted);
+                    return 10L;
+                });
+
+        assertThat(page.getContent()).containsExactly("member1", "member2");
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(meterRegistry.get("search.page.concurrent.saved").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void content가_실패하면_count를_취소() {
+        final CountDownLatch countStarted = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> executor.execute(em, PageRequest.of(0, 2),
+                () -> {
+                    await(countStarted);
+                    throw new IllegalStateException("content failed");
+                },
+                () -> {
+                    countStarted.countDown();
+                    await(new CountDownLatch(1));
+                    return 10L;
+                }))
+                .hasMessage("content failed");
+
+        verify(countSession, timeout(1000)).cancelQuery();
+    }
+
+    @Test
+    public void count가_실패하면_content를_취소() {
+        final CountDownLatch contentCancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            contentCancelled.countDown();
+            return null;
+        }).when(contentSession).cancelQuery();
+
+        assertThatThrownBy(() -> executor.execute(em, PageRequest.of(0, 2),
+                () -> {
+                    await(contentCancelled);
+                    throw new IllegalStateException("content cancelled");
+                },
+                () -> {
+                    throw new IllegalStateException("count failed");
+                }))
+                .hasMessage("count failed");
+    }
+
+    @Test
+    public void 풀에_쉬는_커넥션이_없으면_순서대로_실행() throws Exception {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:concurrent-page");
+            pool.setMaximumPoolSize(1);
+            final ConcurrentPageExecutor poolExecutor = new ConcurrentPageExecutor(new ConcurrentPageProperties(),
+                    mock(PlatformTransactionManager.class), pool, meterRegistry);
+
+            // 호출 스레드의 트랜잭션이 쥐고 있는 커넥션.
+            try (Connection ignored = pool.getConnection()) {
+                final Page<String> page = poolExecutor.execute(em, PageRequest.of(0, 2),
+                        () -> List.of("member1", "member2"), () -> 10L);
+
+                assertThat(page.getTotalElements()).isEqualTo(10);
+                assertThat(meterRegistry.get("search.page.concurrent.fallback").tag("reason", "pool").counter().count())
+                        .isEqualTo(1);
+            } finally {
+                poolExecutor.destroy();
+            }
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
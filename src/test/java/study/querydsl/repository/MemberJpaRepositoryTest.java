@@ -1,6 +1,8 @@
 package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -13,8 +15,11 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.StatementBudget;
+import study.querydsl.metrics.StatementBudgetScope;
 
 import java.util.List;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -110,6 +115,75 @@ class MemberJpaRepositoryTest {
 
     }
 
+    @ParameterizedTest
+    @MethodSource("provideAllShapes")
+    public void searchTemplateTest(final MemberSearchCondition condition) {
+
+        initDB();
+
+        final List<MemberTeamDto> expected = memberJpaRepository.searchByBuilder(condition);
+        final List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+        assertThat(result).extracting("memberId")
+                .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).toList());
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCondition")
+    public void searchStreamTest(final MemberSearchCondition condition) {
+
+        initDB();
+
+        final List<MemberTeamDto> expected = memberJpaRepository.search(condition);
+
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.searchStream(condition, 2)) {
+            assertThat(stream.toList()).extracting("memberId")
+                    .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).toList());
+        }
+
+    }
+
+    @Nested
+    class StatementBudgetTest {
+
+        @BeforeEach
+        void setUp() {
+            initDB();
+            em.flush();
+            em.clear();
+        }
+
+        @Test
+        @StatementBudget(1)
+        public void 검색은_한번에_조회() {
+            final MemberSearchCondition condition = MemberSearchCondition.builder().teamName("teamA").build();
+
+            assertThat(memberJpaRepository.search(condition)).extracting("teamName").containsOnly("teamA");
+        }
+
+        @Test
+        public void 지연로딩_N플러스1_감지() {
+            try (StatementBudgetScope scope = StatementBudgetScope.open("findAll", 1)) {
+                memberJpaRepository.findAll().forEach(member -> member.getTeam().getName());
+
+                assertThat(scope.isExceeded()).isTrue();
+                assertThat(scope.getViolationSite()).contains(MemberJpaRepositoryTest.class.getSimpleName());
+                assertThat(scope.getViolationSql()).containsIgnoringCase("team");
+            }
+        }
+    }
+
+    private static Stream<Arguments> provideAllShapes() {
+        return IntStream.range(0, 16)
+                .mapToObj(shape -> Arguments.of(MemberSearchCondition.builder()
+                        .ageGoe((shape & 1) != 0 ? 15 : null)
+                        .ageLoe((shape & 2) != 0 ? 35 : null)
+                        .teamName((shape & 4) != 0 ? "teamB" : null)
+                        .username((shape & 8) != 0 ? "member3" : null)
+                        .build()));
+    }
+
     private static Stream<Arguments> provideCondition() {
         return Stream.of(
                 Arguments.of(MemberSearchCondition.builder()
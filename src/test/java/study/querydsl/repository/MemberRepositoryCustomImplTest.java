@@ -1,5 +1,7 @@
 package study.querydsl.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -11,14 +13,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.exception.InvalidCursorException;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -31,6 +38,9 @@ class MemberRepositoryCustomImplTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
 
     private void initDB() {
         final Team teamA = Team.builder().name("teamA").build();
@@ -77,6 +87,116 @@ class MemberRepositoryCustomImplTest {
                 );
     }
 
+    @ParameterizedTest
+    @MethodSource("provideConditionAndPage")
+    public void searchPageComplexDeferredJoinTest(final MemberSearchCondition condition, final PageRequest pageRequest) {
+        initDB();
+
+        final Page<MemberTeamDto> offset = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.OFFSET);
+        final Page<MemberTeamDto> deferred = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.DEFERRED_JOIN);
+
+        assertThat(deferred.getTotalElements()).isEqualTo(offset.getTotalElements());
+        assertThat(deferred.getContent()).extracting("memberId")
+                .containsExactlyElementsOf(offset.getContent().stream().map(MemberTeamDto::getMemberId).toList());
+        assertThat(deferred.getContent()).extracting("teamName")
+                .containsExactlyElementsOf(offset.getContent().stream().map(MemberTeamDto::getTeamName).toList());
+    }
+
+    @Test
+    public void searchPageComplexOrderTest() {
+        // id 는 오르고 나이는 내려가도록 넣어서 (age, member_id) 인덱스 순서와 id 순서가 어긋나게 한다.
+        final Team teamA = Team.builder().name("teamA").build();
+        em.persist(teamA);
+        for (int age = 50; age > 0; age -= 10) {
+            em.persist(Member.builder().username("member" + age).age(age).team(teamA).build());
+        }
+        em.flush();
+        em.clear();
+
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(10).ageLoe(50).build();
+        for (PageRequest pageRequest : List.of(PageRequest.of(0, 2), PageRequest.of(1, 2), PageRequest.of(2, 2))) {
+            final Page<MemberTeamDto> offset = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.OFFSET);
+            final Page<MemberTeamDto> deferred = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.DEFERRED_JOIN);
+
+            assertThat(offset.getContent()).extracting("memberId").isSorted();
+            assertThat(deferred.getContent()).extracting("memberId")
+                    .containsExactlyElementsOf(offset.getContent().stream().map(MemberTeamDto::getMemberId).toList());
+        }
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), SearchPlan.OFFSET).getContent())
+                .extracting("age").containsExactly(50, 40);
+    }
+
+    @Test
+    public void searchPageComplexConcurrentTest() {
+        initDB();
+
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(20).build();
+        final PageRequest pageRequest = PageRequest.of(0, 2);
+
+        final Page<MemberTeamDto> concurrent = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.CONCURRENT);
+        final Page<MemberTeamDto> offset = memberRepository.searchPageComplex(condition, pageRequest, SearchPlan.OFFSET);
+
+        assertThat(concurrent.getTotalElements()).isEqualTo(offset.getTotalElements()).isEqualTo(3);
+        assertThat(concurrent.getContent()).extracting("memberId")
+                .containsExactlyElementsOf(offset.getContent().stream().map(MemberTeamDto::getMemberId).toList());
+        // 테스트 트랜잭션 안에서는 count 가 커밋 전 데이터를 봐야 하므로 순서대로 실행한다.
+        assertThat(meterRegistry.get("search.page.concurrent.fallback").tag("reason", "transaction").counter().count()).isPositive();
+    }
+
+    @Test
+    public void searchSliceTest() {
+        initDB();
+
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(10).build();
+
+        final MemberSlice first = memberRepository.searchSlice(condition, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        final MemberSlice second = memberRepository.searchSlice(condition, MemberCursor.decode(first.getNextCursor()), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void repositoryMetricsTest() {
+        initDB();
+        em.flush();
+        em.clear();
+
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(20).teamName("teamB").build();
+        memberRepository.search(condition);
+
+        final Tags tags = Tags.of("repository", "MemberRepositoryCustomImpl", "method", "search", "shape", "ageGoe+teamName");
+        assertThat(meterRegistry.get("repository.invocations").tags(tags).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("repository.rows").tags(tags).summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("repository.statements").tags(tags).summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    public void repositoryMetricsScopeTest() {
+        initDB();
+
+        memberRepository.findAll();
+        memberRepository.searchPageComplex(MemberSearchCondition.builder().build(), PageRequest.of(0, 2), SearchPlan.CONCURRENT);
+
+        assertThat(meterRegistry.get("repository.invocations").tag("repository", "MemberRepository").tag("method", "findAll")
+                .timer().count()).isPositive();
+        // 커스텀 메서드는 구현체에서 한 번만 잰다.
+        assertThat(meterRegistry.find("repository.invocations").tag("repository", "MemberRepository").tag("method", "searchPageComplex")
+                .timer()).isNull();
+        assertThat(meterRegistry.get("repository.invocations").tag("repository", "MemberRepositoryCustomImpl").tag("method", "searchPageComplex")
+                .timer().count()).isPositive();
+        // 리포지토리 패키지에 있어도 리포지토리가 아닌 빈은 재지 않는다.
+        assertThat(meterRegistry.find("repository.invocations").tag("repository", "ConcurrentPageExecutor").timer()).isNull();
+    }
+
+    @Test
+    public void invalidCursorTest() {
+        assertThatThrownBy(() -> MemberCursor.decode("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
 
     private static Stream<Arguments> provideConditionAndPage() {
         return Stream.of(
@@ -0,0 +1,64 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import study.querydsl.dto.TeamRosterDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    private void initDB() {
+        final Team teamA = Team.builder().name("teamA").build();
+        final Team teamB = Team.builder().name("teamB").build();
+        final Team teamC = Team.builder().name("teamC").build();
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(Member.builder().username("member1").age(10).team(teamA).build());
+        em.persist(Member.builder().username("member2").age(20).team(teamA).build());
+        em.persist(Member.builder().username("member3").age(30).team(teamB).build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(TeamFetchStrategy.class)
+    public void findRosterTest(final TeamFetchStrategy strategy) {
+        initDB();
+
+        final Page<TeamRosterDto> first = teamRepository.findRoster(PageRequest.of(0, 2), strategy);
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getContent()).extracting("name").containsExactly("teamA", "teamB");
+        assertThat(first.getContent().get(0).getMembers()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.getContent().get(1).getMembers()).extracting("username").containsExactly("member3");
+
+        final Page<TeamRosterDto> second = teamRepository.findRoster(PageRequest.of(1, 2), strategy);
+        assertThat(second.getContent()).extracting("name").containsExactly("teamC");
+        assertThat(second.getContent().get(0).getMembers()).isEmpty();
+    }
+
+    @Test
+    public void emptyRosterTest() {
+        assertThat(teamRepository.findRoster(PageRequest.of(0, 10), TeamFetchStrategy.TWO_QUERY)).isEmpty();
+    }
+}
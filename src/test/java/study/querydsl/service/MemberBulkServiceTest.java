@@ -0,0 +1,158 @@
+package study.querydsl.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberCountCacheProperties;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.cache.MemberSearchCacheProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// 청크마다 따로 커밋하므로 테스트 데이터도 커밋되어 있어야 한다.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemberBulkServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MemberBulkService bulkService;
+    MemberCountCache memberCountCache;
+    MemberSearchCache memberSearchCache;
+    TransactionTemplate transaction;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            final Team teamA = Team.builder().name("teamA").build();
+            em.persist(teamA);
+            for (int i = 0; i < 25; i++) {
+                em.persist(Member.builder().username("member" + i).age(i).team(teamA).build());
+            }
+        });
+
+        final MemberBulkProperties properties = new MemberBulkProperties();
+        properties.setChunkSize(4);
+        properties.setThrottle(Duration.ZERO);
+        memberCountCache = new MemberCountCache(new MemberCountCacheProperties(), new SimpleMeterRegistry());
+        memberSearchCache = new MemberSearchCache(new MemberSearchCacheProperties(), new SimpleMeterRegistry());
+        final StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+                "memberCountCache", memberCountCache, "memberSearchCache", memberSearchCache));
+        bulkService = new MemberBulkService(queryFactory, em, emf, transactionManager, properties, new SimpleMeterRegistry(),
+                beans.getBeanProvider(MemberCountCache.class), beans.getBeanProvider(MemberSearchCache.class));
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            queryFactory.delete(member).execute();
+            queryFactory.delete(team).execute();
+        });
+    }
+
+    @Test
+    public void 청크로_나눠_update() {
+        final List<MemberBulkService.Progress> reported = new ArrayList<>();
+
+        // 바뀐 값이 다시 조건에 걸려도 한 번만 처리된다.
+        final MemberBulkService.Progress progress = bulkService.update(member.age.lt(10),
+                clause -> clause.set(member.age, member.age.add(1)), reported::add);
+
+        assertThat(progress.rows()).isEqualTo(10);
+        assertThat(progress.chunks()).isEqualTo(3);
+        assertThat(reported).extracting(MemberBulkService.Progress::rows).containsExactly(4L, 8L, 10L);
+        assertThat(queryFactory.select(member.age.sum()).from(member).fetchOne()).isEqualTo(300 + 10);
+    }
+
+    @Test
+    public void 호출한_트랜잭션의_영속성_컨텍스트를_맞춘다() {
+        transaction.executeWithoutResult(status -> {
+            final Member loaded = queryFactory.selectFrom(member).where(member.age.eq(0)).fetchOne();
+
+            bulkService.update(member.age.eq(0), clause -> clause.set(member.username, "비회원"));
+
+            assertThat(em.contains(loaded)).isFalse();
+            assertThat(em.find(Member.class, loaded.getId()).getUsername()).isEqualTo("비회원");
+        });
+    }
+
+    @Test
+    public void 호출한_쪽의_flush_되지_않은_변경은_먼저_flush() {
+        transaction.executeWithoutResult(status -> {
+            final Team teamB = Team.builder().name("teamB").members(new ArrayList<>()).build();
+            em.persist(teamB);
+            queryFactory.selectFrom(member).where(member.age.eq(24)).fetchOne().changeTeam(teamB);
+
+            bulkService.update(member.age.eq(0), clause -> clause.set(member.username, "비회원"));
+
+            assertThat(em.unwrap(Session.class).isDirty()).isFalse();
+        });
+    }
+
+    @Test
+    public void 청크마다_count_와_search_캐시를_비운다() {
+        final MemberSearchCondition condition = MemberSearchCondition.builder().ageLoe(1).build();
+        final AtomicInteger queries = new AtomicInteger();
+        memberCountCache.get(condition, queries::incrementAndGet);
+        memberSearchCache.get(condition, () -> {
+            queries.incrementAndGet();
+            return List.of();
+        });
+
+        bulkService.delete(member.age.eq(0));
+
+        memberCountCache.get(condition, queries::incrementAndGet);
+        memberSearchCache.get(condition, () -> {
+            queries.incrementAndGet();
+            return List.of();
+        });
+        assertThat(queries.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void 청크로_나눠_delete() {
+        final MemberBulkService.Progress progress = bulkService.delete(member.age.gt(18));
+
+        assertThat(progress.rows()).isEqualTo(6);
+        assertThat(progress.chunks()).isEqualTo(2);
+        assertThat(progress.rowsPerSecond()).isPositive();
+        assertThat(queryFactory.selectFrom(member).fetch()).hasSize(19);
+    }
+}
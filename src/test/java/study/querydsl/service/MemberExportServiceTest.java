@@ -0,0 +1,70 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({MemberExportService.class, MemberJpaRepository.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = "member.export.flush-every=2")
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Test
+    public void 한_줄에_하나씩_쓰고_flushEvery_마다_flush() throws Exception {
+        final Team teamA = Team.builder().name("teamA").build();
+        em.persist(teamA);
+        final Member[] members = new Member[5];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = Member.builder().username("member" + i).age(i).team(i < 3 ? teamA : null).build();
+            em.persist(members[i]);
+        }
+        em.flush();
+        em.clear();
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final int[] flushes = {0};
+        final FilterOutputStream out = new FilterOutputStream(bytes) {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        final long rows = memberExportService.exportNdjson(MemberSearchCondition.builder().build(), out);
+
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < members.length; i++) {
+            expected.append(i < 3
+                    ? "{\"memberId\":%d,\"username\":\"member%d\",\"age\":%d,\"teamId\":%d,\"teamName\":\"teamA\"}\n"
+                            .formatted(members[i].getId(), i, i, teamA.getId())
+                    : "{\"memberId\":%d,\"username\":\"member%d\",\"age\":%d,\"teamId\":null,\"teamName\":null}\n"
+                            .formatted(members[i].getId(), i, i));
+        }
+        assertThat(rows).isEqualTo(5);
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+        // 2, 4 번째 행 뒤와 끝에서 한 번, generator 를 닫을 때 한 번
+        assertThat(flushes[0]).isEqualTo(4);
+    }
+}
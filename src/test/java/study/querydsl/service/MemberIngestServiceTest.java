@@ -0,0 +1,204 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+import study.querydsl.controller.MemberController;
+import study.querydsl.dto.MemberIngestResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// 배치마다 따로 커밋하므로 테스트 데이터도 커밋되어 있어야 한다.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemberIngestServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MemberIngestService ingestService;
+    TransactionTemplate transaction;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            em.persist(Team.builder().name("teamA").build());
+            em.persist(Team.builder().name("teamB").build());
+        });
+
+        final MemberIngestProperties properties = new MemberIngestProperties();
+        properties.setBatchSize(3);
+        ingestService = new MemberIngestService(em, queryFactory, new ObjectMapper(), transactionManager, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            queryFactory.delete(member).execute();
+            queryFactory.delete(team).execute();
+        });
+    }
+
+    @Test
+    public void json_배열을_배치로_넣기() throws IOException {
+        final MemberIngestResult result = ingestService.ingestJson(body("""
+                [{"username":"m1","age":10,"teamName":"teamA"},
+                 {"username":"m2","age":20,"teamName":"teamB"},
+                 {"username":"m3","age":30},
+                 {"username":"m4","age":40,"teamName":"teamA"}]
+                """));
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(4);
+        assertThat(result.getBatches()).isEqualTo(2);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getErrors()).isEmpty();
+
+        final List<Member> members = transaction.execute(status -> queryFactory.selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .orderBy(member.username.asc())
+                .fetch());
+        assertThat(members).extracting(Member::getUsername).containsExactly("m1", "m2", "m3", "m4");
+        assertThat(members.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(members.get(2).getTeam()).isNull();
+    }
+
+    @Test
+    public void 잘못된_행은_건너뛰고_배치별로_보고() throws IOException {
+        final MemberIngestResult result = ingestService.ingestJson(body("""
+                {"username":"m1","age":10,"teamName":"teamA"}
+                {"username":"","age":20}
+                {"username":"m3","age":30,"teamName":"teamC"}
+                {"username":"m4","age":-1}
+                {"username":"m5","age":50,"teamName":"teamB"}
+                """));
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).hasSize(2);
+
+        final MemberIngestResult.BatchError first = result.getErrors().get(0);
+        assertThat(first.getBatch()).isEqualTo(1);
+        assertThat(first.getFirstRow()).isEqualTo(1);
+        assertThat(first.getLastRow()).isEqualTo(3);
+        assertThat(first.getFailedRows()).isEqualTo(2);
+        assertThat(first.getMessages()).hasSize(2);
+        assertThat(first.getMessages().get(1)).contains("teamC");
+
+        final List<String> usernames = transaction.execute(status ->
+                queryFactory.select(member.username).from(member).fetch());
+        assertThat(usernames).containsExactlyInAnyOrder("m1", "m5");
+    }
+
+    @Test
+    public void 본문이_깨지면_앞의_행까지만_넣고_멈춤() throws IOException {
+        final MemberIngestResult result = ingestService.ingestJson(body("""
+                [{"username":"m1","age":10},{"username":"m2","age":20},{"username":
+                """));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.isCompleted()).isFalse();
+        assertThat(result.getErrors()).hasSize(1);
+    }
+
+    @Test
+    public void csv_넣기() throws IOException {
+        final MemberIngestResult result = ingestService.ingestCsv(body("""
+                age,username,team_name
+                10,"kim, jr",teamA
+                20,"say \"\"hi\"\"",
+                abc,m3,teamB
+                """));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        final List<String> usernames = transaction.execute(status ->
+                queryFactory.select(member.username).from(member).fetch());
+        assertThat(usernames).containsExactlyInAnyOrder("kim, jr", "say \"hi\"");
+    }
+
+    @Test
+    public void open_in_view_요청에서도_배치마다_영속성_컨텍스트를_비움() throws Exception {
+        final OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(emf);
+        final AtomicInteger managedAfterIngest = new AtomicInteger(-1);
+        final MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new MemberController(null, null, null, null, null, ingestService))
+                .addInterceptors(new WebRequestHandlerInterceptorAdapter(openInView), new HandlerInterceptor() {
+                    @Override
+                    public void postHandle(final HttpServletRequest request, final HttpServletResponse response,
+                                           final Object handler, final ModelAndView modelAndView) {
+                        // 요청에 묶인 EntityManager 가 아직 열려 있는 시점이다.
+                        managedAfterIngest.set(em.unwrap(Session.class).getStatistics().getEntityCount());
+                    }
+                })
+                .build();
+
+        mockMvc.perform(post("/members/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("""
+                                {"username":"m1","age":10,"teamName":"teamA"}
+                                {"username":"m2","age":20,"teamName":"teamB"}
+                                {"username":"m3","age":30}
+                                {"username":"m4","age":40,"teamName":"teamA"}
+                                {"username":"m5","age":50}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(5))
+                .andExpect(jsonPath("$.batches").value(2));
+
+        assertThat(managedAfterIngest.get()).isZero();
+    }
+
+    private static InputStream body(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
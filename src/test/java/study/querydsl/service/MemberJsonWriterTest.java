@@ -0,0 +1,72 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({MemberJsonWriter.class, MemberJpaRepository.class, JacksonAutoConfiguration.class})
+class MemberJsonWriterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJsonWriter memberJsonWriter;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void before() {
+        final Team teamA = Team.builder().name("teamA").build();
+        final Team teamB = Team.builder().name("팀\"B\"").build();
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(Member.builder().username("member1").age(10).team(teamA).build());
+        em.persist(Member.builder().username("member2").age(20).team(teamA).build());
+        em.persist(Member.builder().username("회원\\3").age(30).team(teamB).build());
+        em.persist(Member.builder().username("member4").age(40).build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void DTO_직렬화와_같은_바이트() throws Exception {
+        for (MemberSearchCondition condition : List.of(
+                MemberSearchCondition.builder().build(),
+                MemberSearchCondition.builder().ageGoe(20).ageLoe(40).build(),
+                MemberSearchCondition.builder().teamName("teamA").build(),
+                MemberSearchCondition.builder().username("회원\\3").build(),
+                MemberSearchCondition.builder().username("nobody").build())) {
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final long rows = memberJsonWriter.write(condition, out);
+
+            assertThat(out.toByteArray())
+                    .as(condition.toString())
+                    .isEqualTo(objectMapper.writeValueAsBytes(memberJpaRepository.search(condition)));
+            assertThat(rows).isEqualTo(memberJpaRepository.search(condition).size());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package study.querydsl.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.MemberSearchTemplates;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class MemberSnapshotTest {
+
+    private static final String[] PROPERTIES = {"age", "team", "username"};
+
+    @Autowired
+    EntityManager em;
+
+    MemberSnapshot snapshot;
+    Team teamA;
+
+    @BeforeEach
+    public void before() {
+        teamA = Team.builder().name("teamA").build();
+        final Team teamB = Team.builder().name("teamB").build();
+        // 이름이 같은 팀
+        final Team otherTeamA = Team.builder().name("teamA").build();
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(otherTeamA);
+
+        final Team[] teams = {teamA, teamB, otherTeamA, null};
+        for (int i = 0; i < 40; i++) {
+            em.persist(Member.builder().username("member" + (i % 7)).age(i).team(teams[i % 4]).build());
+        }
+        em.flush();
+        em.clear();
+
+        final MemberSnapshotProperties properties = new MemberSnapshotProperties();
+        // 구간을 작게 잡아 병렬 경로를 탄다.
+        properties.setSegmentSize(6);
+        snapshot = new MemberSnapshot(properties, null, new SimpleMeterRegistry()) {
+            @Override
+            MemberColumns load() {
+                return load(em);
+            }
+        };
+        snapshot.reload();
+    }
+
+    @Test
+    public void SQL과_같은_결과() {
+        for (MemberSearchCondition condition : conditions()) {
+            final List<MemberTeamDto> expected = sql(condition);
+
+            assertThat(snapshot.search(condition))
+                    .as(condition.toString())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(expected);
+
+            for (int page = 0; page <= expected.size() / 4 + 1; page++) {
+                final Page<MemberTeamDto> result = snapshot.searchPage(condition, PageRequest.of(page, 4));
+                assertThat(result.getTotalElements()).as(condition.toString()).isEqualTo(expected.size());
+                assertThat(result.getContent())
+                        .as(condition + " page " + page)
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactlyElementsOf(expected.subList(Math.min(page * 4, expected.size()),
+                                Math.min(page * 4 + 4, expected.size())));
+            }
+        }
+    }
+
+    @Test
+    public void 변경_반영() {
+        final Member member0 = em.createQuery("select m from Member m where m.age = 0", Member.class).getSingleResult();
+        final Member member1 = em.createQuery("select m from Member m where m.age = 1", Member.class).getSingleResult();
+
+        final Team teamC = Team.builder().name("teamC").build();
+        em.persist(teamC);
+        snapshot.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.INSERT, teamC,
+                new String[]{"name"}, null, new Object[]{"teamC"}));
+        snapshot.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE, member0, PROPERTIES,
+                new Object[]{0, member0.getTeam(), "member0"}, new Object[]{50, teamC, "renamed"}));
+        snapshot.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.DELETE, member1, PROPERTIES,
+                new Object[]{1, member1.getTeam(), "member1"}, null));
+
+        assertThat(snapshot.search(MemberSearchCondition.builder().teamName("teamC").build()))
+                .extracting(MemberTeamDto::getMemberId, MemberTeamDto::getUsername, MemberTeamDto::getAge)
+                .containsExactly(tuple(member0.getId(), "renamed", 50));
+        assertThat(snapshot.search(MemberSearchCondition.builder().ageLoe(1).build())).isEmpty();
+        assertThat(snapshot.searchPage(MemberSearchCondition.builder().build(), PageRequest.of(0, 1))
+                .getTotalElements()).isEqualTo(39);
+    }
+
+    @Test
+    public void 메모리_추정에_username_사전을_포함한다() {
+        final MemberColumns shared = new MemberColumns(100);
+        final MemberColumns distinct = new MemberColumns(100);
+        for (int i = 0; i < 100; i++) {
+            shared.upsert(i, "member", i, null);
+            distinct.upsert(i, "member-with-a-long-username-" + i, i, null);
+        }
+
+        // 행과 배열 크기는 같으니 차이는 사전에서만 난다. 문자열 글자 수보다는 커야 한다.
+        assertThat(distinct.estimatedBytes() - shared.estimatedBytes()).isGreaterThan(99 * 30L);
+    }
+
+    private List<MemberTeamDto> sql(final MemberSearchCondition condition) {
+        final List<MemberTeamDto> result = new ArrayList<>(MemberSearchTemplates.of(condition).fetch(em, condition));
+        result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        return result;
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        return List.of(
+                MemberSearchCondition.builder().build(),
+                MemberSearchCondition.builder().ageGoe(10).build(),
+                MemberSearchCondition.builder().ageGoe(10).ageLoe(25).build(),
+                MemberSearchCondition.builder().teamName("teamA").build(),
+                MemberSearchCondition.builder().teamName("teamB").ageLoe(20).build(),
+                MemberSearchCondition.builder().teamName("none").build(),
+                MemberSearchCondition.builder().username("member3").build(),
+                MemberSearchCondition.builder().username("member3").teamName("teamA").ageGoe(5).build(),
+                MemberSearchCondition.builder().username("nobody").build(),
+                MemberSearchCondition.builder().username("").teamName("").build());
+    }
+}
@@ -0,0 +1,95 @@
+package study.querydsl.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountEstimatorTest {
+
+    private static final String[] MEMBER_PROPERTIES = {"age", "team", "username"};
+
+    MemberHistogram histogram;
+    MemberCountEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        // teamA: 0~9살 각 10명, teamB: 10~19살 각 10명
+        histogram = new MemberHistogram(5, 150, System.nanoTime());
+        histogram.putTeam(1L, "teamA");
+        histogram.putTeam(2L, "teamB");
+        for (int age = 0; age < 10; age++) {
+            histogram.add(1L, age, 10);
+            histogram.add(2L, age + 10, 10);
+        }
+
+        final MemberCountEstimatorProperties properties = new MemberCountEstimatorProperties();
+        properties.setEnabled(true);
+        properties.setThreshold(50);
+        estimator = new MemberCountEstimator(properties, null, new SimpleMeterRegistry()) {
+            @Override
+            MemberHistogram build() {
+                return histogram;
+            }
+        };
+        estimator.rebuild();
+    }
+
+    @Test
+    public void 구간_일부만_덮으면_비율만큼_추정() {
+        assertThat(histogram.estimate(null, null, null)).isEqualTo(200);
+        assertThat(histogram.estimate("teamA", null, null)).isEqualTo(100);
+        assertThat(histogram.estimate(null, 5, 14)).isEqualTo(100);
+        // 0~4 버킷 중 3, 4살(2/5) + 5~9 버킷 전체
+        assertThat(histogram.estimate("teamA", 3, null)).isEqualTo(70);
+        assertThat(histogram.estimate("teamC", null, null)).isZero();
+        assertThat(histogram.estimate(null, 30, 20)).isZero();
+    }
+
+    @Test
+    public void 임계치_이상만_추정치를_쓴다() {
+        assertThat(estimator.estimate(MemberSearchCondition.builder().ageGoe(0).build())).hasValue(200);
+        assertThat(estimator.estimate(MemberSearchCondition.builder().teamName("teamA").ageGoe(8).build())).isEmpty();
+        assertThat(estimator.estimate(MemberSearchCondition.builder().username("member1").build())).isEmpty();
+    }
+
+    @Test
+    public void 히스토그램을_만들기_전에는_정확한_count_를_쓴다() {
+        final MemberCountEstimatorProperties properties = new MemberCountEstimatorProperties();
+        properties.setEnabled(true);
+        properties.setThreshold(50);
+        final MemberCountEstimator notReady = new MemberCountEstimator(properties, null, new SimpleMeterRegistry()) {
+            @Override
+            MemberHistogram build() {
+                throw new AssertionError("요청 스레드에서 만들면 안 된다");
+            }
+        };
+
+        assertThat(notReady.estimate(MemberSearchCondition.builder().ageGoe(0).build())).isEmpty();
+    }
+
+    @Test
+    public void 커밋된_변경을_반영() {
+        final Team teamA = Team.builder().id(1L).name("teamA").build();
+        final Team teamC = Team.builder().id(3L).name("teamC").build();
+        estimator.estimate(MemberSearchCondition.builder().build());
+
+        estimator.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.INSERT, teamC,
+                new String[]{"name"}, null, new Object[]{"teamC"}));
+        for (int i = 0; i < 60; i++) {
+            estimator.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.INSERT, Member.builder().build(),
+                    MEMBER_PROPERTIES, null, new Object[]{40, teamC, "member" + i}));
+        }
+        assertThat(estimator.estimate(MemberSearchCondition.builder().teamName("teamC").build())).hasValue(60);
+
+        estimator.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Type.UPDATE, Member.builder().build(),
+                MEMBER_PROPERTIES, new Object[]{40, teamC, "member0"}, new Object[]{40, teamA, "member0"}));
+        assertThat(estimator.estimate(MemberSearchCondition.builder().teamName("teamC").build())).hasValue(59);
+        assertThat(histogram.estimate("teamA", null, null)).isEqualTo(101);
+    }
+}
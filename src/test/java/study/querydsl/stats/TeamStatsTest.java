@@ -0,0 +1,165 @@
+package study.querydsl.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEventPublisher;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EntityChangeEventPublisher.class, TeamStatsMaintainer.class, TeamStatsRepository.class})
+// team_stats 는 커밋 직전에 반영되므로 트랜잭션을 직접 커밋한다.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TeamStatsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            teamA = Team.builder().name("teamA").build();
+            teamB = Team.builder().name("teamB").build();
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(Member.builder().username("member1").age(10).team(teamA).build());
+            em.persist(Member.builder().username("member2").age(20).team(teamA).build());
+            em.persist(Member.builder().username("member3").age(30).team(teamB).build());
+            em.persist(Member.builder().username("member4").age(40).team(teamB).build());
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from team_stats");
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    public void insert_반영() {
+        assertThat(teamStatsRepository.findAll())
+                .extracting(TeamStatsDto::getTeamName, TeamStatsDto::getMemberCount, TeamStatsDto::getAgeSum,
+                        TeamStatsDto::getAgeAvg, TeamStatsDto::getAgeMin, TeamStatsDto::getAgeMax)
+                .containsExactly(
+                        tuple("teamA", 2L, 30L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 70L, 35.0, 30, 40));
+    }
+
+    @Test
+    public void changeTeam_delete_반영() {
+        transaction.executeWithoutResult(status -> {
+            final Member member1 = em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                    .getSingleResult();
+            member1.changeTeam(em.find(Team.class, teamB.getId()));
+            em.flush();
+
+            em.remove(em.createQuery("select m from Member m where m.username = 'member4'", Member.class)
+                    .getSingleResult());
+        });
+
+        final List<TeamStatsDto> stats = teamStatsRepository.findAll();
+        assertThat(stats)
+                .extracting(TeamStatsDto::getTeamName, TeamStatsDto::getMemberCount,
+                        TeamStatsDto::getAgeMin, TeamStatsDto::getAgeMax)
+                .containsExactly(
+                        tuple("teamA", 1L, 20, 20),
+                        tuple("teamB", 2L, 10, 30));
+    }
+
+    @Test
+    public void flush_도중에는_쓰지_않고_커밋_직전에_반영() {
+        final List<TeamStatsDto> duringTransaction = transaction.execute(status -> {
+            em.persist(Member.builder().username("member5").age(50).team(em.find(Team.class, teamA.getId())).build());
+            em.flush();
+            return teamStatsRepository.findAll();
+        });
+
+        assertThat(duringTransaction.get(0).getMemberCount()).isEqualTo(2);
+        assertThat(teamStatsRepository.findAll().get(0).getMemberCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void 롤백하면_반영하지_않음() {
+        transaction.executeWithoutResult(status -> {
+            em.persist(Member.builder().username("member5").age(50).team(em.find(Team.class, teamA.getId())).build());
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamStatsRepository.findAll().get(0).getMemberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void 멤버없는팀() {
+        transaction.executeWithoutResult(status -> em.persist(Team.builder().name("teamC").build()));
+
+        final TeamStatsDto teamC = teamStatsRepository.findAll().get(2);
+        assertThat(teamC.getMemberCount()).isZero();
+        assertThat(teamC.getAgeAvg()).isNull();
+        assertThat(teamC.getAgeMin()).isNull();
+    }
+
+    @Test
+    public void reconcile() {
+        // 벌크 연산은 이벤트가 나오지 않는다.
+        jdbcTemplate.update("update member set age = 50 where username = 'member2'");
+        final TeamStatsReconciler reconciler =
+                new TeamStatsReconciler(teamStatsRepository, new TeamStatsProperties(), new SimpleMeterRegistry(),
+                        transactionManager);
+
+        assertThat(reconciler.reconcile(false)).isEqualTo(2);
+        assertThat(reconciler.reconcile(true)).isEqualTo(2);
+        assertThat(reconciler.reconcile(false)).isZero();
+
+        assertThat(teamStatsRepository.findAll().get(0).getAgeMax()).isEqualTo(50);
+    }
+
+    @Test
+    public void repair_는_그_시점의_member_수로_고침() {
+        // 행이 없어졌고 member 는 이벤트 없이 늘어난 상황. repair 는 값을 넘겨받지 않고 쓰는 순간에 다시 센다.
+        jdbcTemplate.update("delete from team_stats where team_id = ? and age = ?", teamA.getId(), 10);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)",
+                1_000_000L, "member5", 10, teamA.getId());
+
+        teamStatsRepository.repair(teamA.getId(), 10);
+        teamStatsRepository.repair(teamA.getId(), 20);
+
+        assertThat(teamStatsRepository.findAll().get(0).getMemberCount()).isEqualTo(3);
+    }
+}
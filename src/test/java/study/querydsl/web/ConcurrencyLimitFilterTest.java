@@ -0,0 +1,74 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private static ConcurrencyLimitFilter filter(final SimpleMeterRegistry meterRegistry) {
+        final WebExecutionProperties properties = new WebExecutionProperties();
+        properties.getLimiter().setMaxConcurrent(1);
+        properties.getLimiter().setAcquireTimeout(Duration.ofMillis(50));
+        return new ConcurrencyLimitFilter(properties, meterRegistry);
+    }
+
+    @Test
+    public void 자리가_없으면_503() throws Exception {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final ConcurrencyLimitFilter filter = filter(meterRegistry);
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        final CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/v2/members"), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v3/members"), second, (request, response) -> { });
+        assertThat(second.getStatus()).isEqualTo(503);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("1");
+
+        final MockHttpServletResponse actuator = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), actuator, (request, response) -> { });
+        assertThat(actuator.getStatus()).isEqualTo(200);
+
+        // 커넥션을 쓰지 않거나 자리를 오래 쥐는 경로는 기본으로 제한하지 않는다.
+        for (String path : new String[]{"/members/autocomplete", "/v1/members/stream", "/members/bulk"}) {
+            final MockHttpServletResponse excluded = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", path), excluded, (request, response) -> { });
+            assertThat(excluded.getStatus()).isEqualTo(200);
+        }
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        final MockHttpServletResponse third = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v3/members"), third, (request, response) -> { });
+        assertThat(third.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("web.concurrency.limit.rejected").counter().count()).isEqualTo(1);
+    }
+}